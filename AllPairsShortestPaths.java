@@ -0,0 +1,305 @@
+/******************************************************************************
+ *  Compilation:  javac AllPairsShortestPaths.java
+ *  Execution:    java AllPairsShortestPaths filename.txt
+ *  Dependencies: CsrEdgeWeightedGraph.java EdgeWeightedGraph.java
+ *                ShortestPathWorkspace.java IndexDaryMinPQ.java
+ *                DijkstraSP.java ParallelFor.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  All-pairs shortest paths in parallel, with blocked Floyd-Warshall for
+ *  dense graphs and Dijkstra's algorithm from every source for sparse ones.
+ *
+ *  % java AllPairsShortestPaths krusGraph.txt
+ *  8 vertices, 16 edges: floyd-warshall
+ *           0     1     2     3     4     5     6     7
+ *    0   0.00  0.35  0.26  0.43  0.38  0.67  0.58  0.16
+ *    1   0.35  0.00  0.36  0.29  0.73  0.32  0.76  0.19
+ *    2   0.26  0.36  0.00  0.17  0.64  0.68  0.40  0.34
+ *    3   0.43  0.29  0.17  0.00  0.81  0.61  0.52  0.48
+ *    4   0.38  0.73  0.64  0.81  0.00  1.05  0.96  0.54
+ *    5   0.67  0.32  0.68  0.61  1.05  0.00  1.08  0.51
+ *    6   0.58  0.76  0.40  0.52  0.96  1.08  0.00  0.74
+ *    7   0.16  0.19  0.34  0.48  0.54  0.51  0.74  0.00
+ *  floyd-warshall:       0.4 ms
+ *  dijkstra:             0.5 ms
+ *  same distances: true
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  The {@code AllPairsShortestPaths} class computes the length of a
+ *  shortest path between every pair of vertices of an undirected graph
+ *  with nonnegative edge weights, using all the worker threads of a
+ *  {@link ForkJoinPool}. The distances are kept in one flat
+ *  {@code double[]} matrix, so <em>V</em> is limited to about 46,000 and
+ *  the matrix takes 8<em>V</em><sup>2</sup> bytes.
+ *  <p>
+ *  Dense graphs use the Floyd-Warshall algorithm, blocked for the cache:
+ *  the matrix is cut into {@code BLOCK}-by-{@code BLOCK} tiles, and round
+ *  <em>k</em> relaxes every tile through the vertices of the <em>k</em>th
+ *  diagonal tile. The diagonal tile goes first, then the other tiles of its
+ *  row and column in parallel, since they depend only on it, then all the
+ *  remaining tiles in parallel, since they depend only on the row and the
+ *  column. Each tile update reads three tiles that fit in the cache
+ *  together, and its innermost loop runs over contiguous memory.
+ *  <p>
+ *  Floyd-Warshall always takes time proportional to <em>V</em><sup>3</sup>,
+ *  while Dijkstra's algorithm from every source takes time proportional to
+ *  <em>V E</em> log <em>V</em>. Graphs with fewer than about
+ *  <em>V</em><sup>2</sup> / (4 lg <em>V</em>) edges therefore run
+ *  {@link DijkstraSP} from every source instead, in parallel, each thread
+ *  with its own {@link ShortestPathWorkspace}, writing each result straight
+ *  into its row of the matrix.
+ */
+public class AllPairsShortestPaths {
+    private static final int BLOCK = 64;    // side of a tile of the matrix
+    private static final int DENSITY = 4;   // V^2 / (E lg V) above which Dijkstra is used
+
+    private final int V;
+    private final int n;                // side of the matrix, V rounded up to a multiple of BLOCK
+    private final double[] dist;        // dist[s*n + t] = length of shortest s-t path
+    private final boolean floydWarshall;
+
+    /**
+     * Computes the shortest paths between all pairs of vertices of the graph
+     * {@code G} on the common fork/join pool.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if an edge has negative weight, or if
+     *         {@code G} has too many vertices for a distance matrix
+     */
+    public AllPairsShortestPaths(CsrEdgeWeightedGraph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the shortest paths between all pairs of vertices of the graph
+     * {@code G} on the common fork/join pool. The graph is first copied into
+     * a {@link CsrEdgeWeightedGraph}.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if an edge has negative weight, or if
+     *         {@code G} has too many vertices for a distance matrix
+     */
+    public AllPairsShortestPaths(EdgeWeightedGraph G) {
+        this(new CsrEdgeWeightedGraph(G));
+    }
+
+    /**
+     * Computes the shortest paths between all pairs of vertices of the graph
+     * {@code G} on the given pool.
+     *
+     * @param  G the edge-weighted graph
+     * @param  pool the pool to run on
+     * @throws IllegalArgumentException if an edge has negative weight, or if
+     *         {@code G} has too many vertices for a distance matrix
+     */
+    public AllPairsShortestPaths(CsrEdgeWeightedGraph G, ForkJoinPool pool) {
+        this(G, pool, dense(G));
+    }
+
+    // computes with Floyd-Warshall or with Dijkstra's algorithm, as told
+    AllPairsShortestPaths(CsrEdgeWeightedGraph G, ForkJoinPool pool, boolean floydWarshall) {
+        V = G.V();
+        n = (V + BLOCK - 1) / BLOCK * BLOCK;
+        if ((long) n * n > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Too many vertices for a distance matrix: " + V);
+        double[] weight = G.weightArray();
+        for (int e = 0; e < G.E(); e++)
+            if (weight[e] < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+        this.floydWarshall = floydWarshall;
+        dist = new double[n * n];
+        if (floydWarshall) floydWarshall(G, pool);
+        else               dijkstra(G, pool);
+    }
+
+    // is G dense enough for Floyd-Warshall to beat Dijkstra's algorithm?
+    private static boolean dense(CsrEdgeWeightedGraph G) {
+        double lg = Math.log(Math.max(G.V(), 2)) / Math.log(2);
+        return (double) G.V() * G.V() <= DENSITY * lg * G.E();
+    }
+
+    // Dijkstra's algorithm from every source, one row of the matrix each
+    private void dijkstra(CsrEdgeWeightedGraph G, ForkJoinPool pool) {
+        final int[] offsets = G.offsetsArray();
+        final int[] incident = G.incidentArray();
+        final int[] from = G.fromArray();
+        final int[] to = G.toArray();
+        final double[] weight = G.weightArray();
+        final ShortestPathWorkspace.Pool workspaces = new ShortestPathWorkspace.Pool(V);
+        ParallelFor.run(pool, 0, V, ParallelFor.grain(pool, V, 1), (lo, hi) -> {
+            for (int s = lo; s < hi; s++) {
+                ShortestPathWorkspace ws = workspaces.get();
+                DijkstraSP.run(offsets, incident, from, to, weight, s, -1, ws);
+                int epoch = ws.epoch();
+                int row = s * n;
+                for (int t = 0; t < V; t++)
+                    dist[row + t] = ws.seen[t] == epoch ? ws.dist[t] : Double.POSITIVE_INFINITY;
+            }
+        });
+    }
+
+    // the Floyd-Warshall algorithm, one BLOCK-by-BLOCK tile at a time
+    private void floydWarshall(CsrEdgeWeightedGraph G, ForkJoinPool pool) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        for (int v = 0; v < V; v++)
+            dist[v * n + v] = 0.0;
+        int[] from = G.fromArray();
+        int[] to = G.toArray();
+        double[] weight = G.weightArray();
+        for (int e = 0; e < G.E(); e++) {
+            int v = from[e], w = to[e];
+            if (weight[e] < dist[v * n + w]) {
+                dist[v * n + w] = weight[e];
+                dist[w * n + v] = weight[e];
+            }
+        }
+
+        final int tiles = n / BLOCK;
+        for (int k = 0; k < tiles; k++) {
+            final int kb = k;
+            relax(kb, kb, kb);
+            ParallelFor.run(pool, 0, tiles, 1, (lo, hi) -> {
+                for (int j = lo; j < hi; j++) {
+                    if (j == kb) continue;
+                    relax(kb, j, kb);
+                    relax(j, kb, kb);
+                }
+            });
+            ParallelFor.run(pool, 0, tiles * tiles, ParallelFor.grain(pool, tiles * tiles, 1), (lo, hi) -> {
+                for (int ij = lo; ij < hi; ij++) {
+                    int i = ij / tiles, j = ij % tiles;
+                    if (i != kb && j != kb) relax(i, j, kb);
+                }
+            });
+        }
+    }
+
+    // relaxes tile (i, j) through the vertices of tile k: the paths that go
+    // from a row of tile i through a vertex of tile k to a column of tile j
+    private void relax(int i, int j, int k) {
+        int i0 = i * BLOCK, j0 = j * BLOCK, k0 = k * BLOCK;
+        for (int x = k0; x < k0 + BLOCK; x++) {
+            int kRow = x * n;
+            for (int r = i0; r < i0 + BLOCK; r++) {
+                int row = r * n;
+                double through = dist[row + x];
+                if (through == Double.POSITIVE_INFINITY) continue;
+                for (int c = j0; c < j0 + BLOCK; c++) {
+                    double d = through + dist[kRow + c];
+                    if (d < dist[row + c]) dist[row + c] = d;
+                }
+            }
+        }
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Were the distances computed with the Floyd-Warshall algorithm, rather
+     * than with Dijkstra's algorithm from every source?
+     *
+     * @return {@code true} if the Floyd-Warshall algorithm was used;
+     *         {@code false} otherwise
+     */
+    public boolean floydWarshall() {
+        return floydWarshall;
+    }
+
+    /**
+     * Is there a path from vertex {@code s} to vertex {@code t}?
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t};
+     *         {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        return dist(s, t) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the length of a shortest path from vertex {@code s} to vertex
+     * {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the length of a shortest path from {@code s} to {@code t}, or
+     *         {@code Double.POSITIVE_INFINITY} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double dist(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        return dist[s * n + t];
+    }
+
+    /**
+     * Unit tests the {@code AllPairsShortestPaths} data type, comparing the
+     * two algorithms on the same graph.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+        int V = G.V();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        AllPairsShortestPaths apsp = new AllPairsShortestPaths(G);
+        StdOut.println(V + " vertices, " + G.E() + " edges: "
+                       + (apsp.floydWarshall() ? "floyd-warshall" : "dijkstra"));
+        if (V <= 10) {
+            StdOut.printf("    ");
+            for (int t = 0; t < V; t++)
+                StdOut.printf("%6d", t);
+            StdOut.println();
+            for (int s = 0; s < V; s++) {
+                StdOut.printf("%3d ", s);
+                for (int t = 0; t < V; t++) {
+                    if (apsp.hasPath(s, t)) StdOut.printf("%6.2f", apsp.dist(s, t));
+                    else                    StdOut.printf("%6s", "Inf");
+                }
+                StdOut.println();
+            }
+        }
+
+        // both algorithms, after a warm-up
+        new AllPairsShortestPaths(G, pool, true);
+        new AllPairsShortestPaths(G, pool, false);
+        long start = System.nanoTime();
+        AllPairsShortestPaths floyd = new AllPairsShortestPaths(G, pool, true);
+        long floydTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        AllPairsShortestPaths dijkstra = new AllPairsShortestPaths(G, pool, false);
+        long dijkstraTime = System.nanoTime() - start;
+
+        boolean same = true;
+        for (int s = 0; s < V; s++) {
+            for (int t = 0; t < V; t++) {
+                double x = floyd.dist(s, t), y = dijkstra.dist(s, t);
+                same &= x == y || Math.abs(x - y) <= 1e-9 * y;
+            }
+        }
+        StdOut.printf("floyd-warshall:  %8.1f ms%n", floydTime / 1e6);
+        StdOut.printf("dijkstra:        %8.1f ms%n", dijkstraTime / 1e6);
+        StdOut.println("same distances: " + same);
+    }
+}
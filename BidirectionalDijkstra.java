@@ -0,0 +1,221 @@
+/******************************************************************************
+ *  Compilation:  javac BidirectionalDijkstra.java
+ *  Execution:    java BidirectionalDijkstra filename.txt s t
+ *  Dependencies: CsrEdgeWeightedGraph.java EdgeWeightedGraph.java
+ *                ShortestPathWorkspace.java IndexDaryMinPQ.java
+ *                DijkstraSP.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  Point-to-point shortest paths with a bidirectional version of
+ *  Dijkstra's algorithm.
+ *
+ *  % java BidirectionalDijkstra krusGraph.txt 0 5
+ *  0 to 5 (0.67):  0-7-1-5
+ *  1000 queries agree with DijkstraSP: true
+ *  dijkstra:           1.0 us/query
+ *  bidirectional:      1.2 us/query
+ *
+ ******************************************************************************/
+
+import java.util.Random;
+
+/**
+ *  The {@code BidirectionalDijkstra} class answers point-to-point
+ *  shortest-path queries in an undirected graph with nonnegative edge
+ *  weights. Any number of threads may query one instance at once.
+ *  <p>
+ *  This implementation runs Dijkstra's algorithm from the source and from
+ *  the target at the same time, always advancing the side whose next
+ *  vertex is closer. Whenever an edge reaches a vertex already reached by
+ *  the other side, the two partial paths form an <em>s</em>-<em>t</em>
+ *  path, and the shortest one seen is kept as <em>&mu;</em>. The search
+ *  stops as soon as the smallest keys of the two priority queues add up to
+ *  at least <em>&mu;</em>: every path not yet seen must then be at least
+ *  that long. On graphs where the number of vertices within distance
+ *  <em>r</em> grows like <em>r</em><sup>2</sup>, such as road networks,
+ *  the two balls of radius about half the distance settle about half as
+ *  many vertices as one ball of the full radius.
+ *  <p>
+ *  Each thread gets its own pair of {@link ShortestPathWorkspace}s, created
+ *  on first use and reset in constant time, so a query allocates nothing
+ *  except the returned path.
+ */
+public class BidirectionalDijkstra {
+    private final CsrEdgeWeightedGraph G;
+    private final int[] offsets, incident, from, to;
+    private final double[] weight;
+    private final ShortestPathWorkspace.Pool forward, backward;
+
+    /**
+     * Prepares to answer queries on the graph {@code G}, which must not be
+     * modified afterwards.
+     *
+     * @param  G the edge-weighted graph
+     */
+    public BidirectionalDijkstra(CsrEdgeWeightedGraph G) {
+        this.G = G;
+        this.offsets = G.offsetsArray();
+        this.incident = G.incidentArray();
+        this.from = G.fromArray();
+        this.to = G.toArray();
+        this.weight = G.weightArray();
+        this.forward = new ShortestPathWorkspace.Pool(G.V());
+        this.backward = new ShortestPathWorkspace.Pool(G.V());
+    }
+
+    /**
+     * Prepares to answer queries on a copy of the graph {@code G}.
+     *
+     * @param  G the edge-weighted graph
+     */
+    public BidirectionalDijkstra(EdgeWeightedGraph G) {
+        this(new CsrEdgeWeightedGraph(G));
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the length of a shortest path from {@code s} to {@code t}, or
+     *         {@code Double.POSITIVE_INFINITY} if there is none
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if a reached edge has negative weight
+     */
+    public double distance(int s, int t) {
+        ShortestPathWorkspace fw = forward.get();
+        ShortestPathWorkspace bw = backward.get();
+        int meet = search(s, t, fw, bw);
+        return meet == -1 ? Double.POSITIVE_INFINITY : fw.dist[meet] + bw.dist[meet];
+    }
+
+    /**
+     * Returns a shortest path from {@code s} to {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the vertices on a shortest path from {@code s} to {@code t},
+     *         in order, or {@code null} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if a reached edge has negative weight
+     */
+    public int[] path(int s, int t) {
+        ShortestPathWorkspace fw = forward.get();
+        ShortestPathWorkspace bw = backward.get();
+        int meet = search(s, t, fw, bw);
+        if (meet == -1) return null;
+        int[] head = fw.pathTo(meet);   // s .. meet
+        int[] tail = bw.pathTo(meet);   // t .. meet
+        int[] path = new int[head.length + tail.length - 1];
+        System.arraycopy(head, 0, path, 0, head.length);
+        for (int i = 1; i < tail.length; i++)
+            path[head.length - 1 + i] = tail[tail.length - 1 - i];
+        return path;
+    }
+
+    // searches from both ends and returns the vertex where a shortest path
+    // crosses from the forward to the backward search tree, or -1 if t
+    // cannot be reached
+    private int search(int s, int t, ShortestPathWorkspace fw, ShortestPathWorkspace bw) {
+        int V = G.V();
+        if (t < 0 || t >= V)
+            throw new IndexOutOfBoundsException("vertex " + t + " is not between 0 and " + (V - 1));
+        DijkstraSP.start(V, s, fw);
+        DijkstraSP.start(V, t, bw);
+        if (s == t) return s;
+
+        double mu = Double.POSITIVE_INFINITY;   // length of the shortest s-t path seen
+        int meet = -1;
+        while (!fw.pq.isEmpty() && !bw.pq.isEmpty()) {
+            if (fw.pq.minKey() + bw.pq.minKey() >= mu) break;
+            ShortestPathWorkspace near, far;
+            if (fw.pq.minKey() <= bw.pq.minKey()) { near = fw; far = bw; }
+            else                                  { near = bw; far = fw; }
+
+            int epoch = near.epoch();
+            int farEpoch = far.epoch();
+            int v = near.pq.delMin();
+            near.done[v] = epoch;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int e = incident[i];
+                int w = from[e] == v ? to[e] : from[e];
+                if (near.done[w] == epoch) continue;
+                if (weight[e] < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+                double d = near.dist[v] + weight[e];
+                if (near.seen[w] == epoch) {
+                    if (d >= near.dist[w]) continue;
+                    near.pq.decreaseKey(w, d);
+                }
+                else {
+                    near.seen[w] = epoch;
+                    near.pq.insert(w, d);
+                }
+                near.dist[w] = d;
+                near.parent[w] = v;
+                if (far.seen[w] == farEpoch && d + far.dist[w] < mu) {
+                    mu = d + far.dist[w];
+                    meet = w;
+                }
+            }
+        }
+        return meet;
+    }
+
+    /**
+     * Unit tests the {@code BidirectionalDijkstra} data type, comparing it
+     * with {@link DijkstraSP} on random queries.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+        int s = Integer.parseInt(args[1]);
+        int t = Integer.parseInt(args[2]);
+        int V = G.V();
+        BidirectionalDijkstra sp = new BidirectionalDijkstra(G);
+
+        int[] path = sp.path(s, t);
+        if (path == null) {
+            StdOut.printf("%d to %d (-):  not connected%n", s, t);
+        }
+        else {
+            StdOut.printf("%d to %d (%.2f):  ", s, t, sp.distance(s, t));
+            for (int i = 0; i < path.length; i++) {
+                if (i == 0) StdOut.print(path[i]);
+                else        StdOut.print("-" + path[i]);
+            }
+            StdOut.println();
+        }
+
+        // the same random pairs, one-sided then two-sided, after a warm-up
+        int queries = 1000;
+        int[] a = new int[queries];
+        int[] b = new int[queries];
+        Random random = new Random(0);
+        for (int q = 0; q < queries; q++) {
+            a[q] = random.nextInt(V);
+            b[q] = random.nextInt(V);
+        }
+        ShortestPathWorkspace ws = new ShortestPathWorkspace(V);
+        double[] expected = new double[queries];
+        boolean agree = true;
+        for (int q = 0; q < queries; q++) {
+            expected[q] = DijkstraSP.distance(G, a[q], b[q], ws);
+            double d = sp.distance(a[q], b[q]);
+            agree &= d == expected[q] || Math.abs(d - expected[q]) <= 1e-9 * expected[q];
+        }
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++)
+            DijkstraSP.distance(G, a[q], b[q], ws);
+        long dijkstra = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++)
+            sp.distance(a[q], b[q]);
+        long bidirectional = System.nanoTime() - start;
+
+        StdOut.println(queries + " queries agree with DijkstraSP: " + agree);
+        StdOut.printf("dijkstra:       %8.1f us/query%n", dijkstra / 1e3 / queries);
+        StdOut.printf("bidirectional:  %8.1f us/query%n", bidirectional / 1e3 / queries);
+    }
+}
@@ -0,0 +1,190 @@
+/******************************************************************************
+ *  Compilation:  javac BoruvkaMST.java
+ *  Execution:    java  BoruvkaMST filename.txt
+ *  Dependencies: CsrEdgeWeightedGraph.java ConcurrentDisjointSet.java
+ *                EdgeWeightedGraph.java KruskalMST.java
+ *                MinimumSpanningTree.java ParallelFor.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  Compute a minimum spanning forest using a parallel version of
+ *  Boruvka's algorithm.
+ *
+ *  % java BoruvkaMST krusGraph.txt
+ *  ...
+ *  1.88000
+ *  kruskal: 1.88000
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code BoruvkaMST} class computes a minimum spanning tree (or forest)
+ *  of an edge-weighted graph with Boruvka's algorithm, running each phase
+ *  on a {@link ForkJoinPool}.
+ *  <p>
+ *  Each round scans the remaining edges in parallel and records, for every
+ *  component, its lightest outgoing edge with a compare-and-set on an
+ *  {@link AtomicIntegerArray}. Ties are broken by edge id, so the chosen
+ *  edges form a forest. The chosen edges are then contracted in parallel
+ *  through a {@link ConcurrentDisjointSet}; an edge chosen by both of its
+ *  components is accepted only by the union that succeeds. Finally the
+ *  edges whose endpoints are now in the same component are dropped with a
+ *  parallel compaction. Every round at least halves the number of
+ *  components, so there are at most log <em>V</em> rounds, and no round
+ *  sorts anything.
+ */
+public class BoruvkaMST {
+
+    // this class should not be instantiated
+    private BoruvkaMST() { }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G} on the common fork/join pool. The edges of {@code G} are
+     * first copied into a {@link CsrEdgeWeightedGraph}.
+     *
+     * @param  G the edge-weighted graph
+     * @return a minimum spanning tree (or forest) of {@code G}
+     */
+    public static MinimumSpanningTree mst(EdgeWeightedGraph G) {
+        return mst(new CsrEdgeWeightedGraph(G));
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G} on the common fork/join pool.
+     *
+     * @param  G the edge-weighted graph
+     * @return a minimum spanning tree (or forest) of {@code G}
+     */
+    public static MinimumSpanningTree mst(CsrEdgeWeightedGraph G) {
+        return mst(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G} on the given pool.
+     *
+     * @param  G the edge-weighted graph
+     * @param  pool the pool to run on
+     * @return a minimum spanning tree (or forest) of {@code G}
+     */
+    public static MinimumSpanningTree mst(CsrEdgeWeightedGraph G, ForkJoinPool pool) {
+        final int V = G.V();
+        final int[] from = G.fromArray();
+        final int[] to = G.toArray();
+        final double[] weight = G.weightArray();
+
+        final ConcurrentDisjointSet uf = new ConcurrentDisjointSet(V);
+        final AtomicIntegerArray best = new AtomicIntegerArray(V);
+        final int[] accepted = new int[Math.max(V - 1, 0)];
+        final AtomicInteger n = new AtomicInteger();
+
+        int[] edges = G.edges();
+        int[] scratch = new int[edges.length];
+        int m = edges.length;
+        while (m > 0) {
+            final int[] live = edges;
+            ParallelFor.run(pool, 0, V, (lo, hi) -> {
+                for (int v = lo; v < hi; v++)
+                    best.set(v, -1);
+            });
+
+            // lightest outgoing edge of each component
+            ParallelFor.run(pool, 0, m, (lo, hi) -> {
+                for (int i = lo; i < hi; i++) {
+                    int e = live[i];
+                    int rv = uf.find(from[e]);
+                    int rw = uf.find(to[e]);
+                    if (rv == rw) continue;
+                    offer(best, rv, e, weight);
+                    offer(best, rw, e, weight);
+                }
+            });
+
+            // contract along the chosen edges
+            int before = n.get();
+            ParallelFor.run(pool, 0, V, (lo, hi) -> {
+                for (int v = lo; v < hi; v++) {
+                    int e = best.get(v);
+                    if (e != -1 && uf.union(from[e], to[e]))
+                        accepted[n.getAndIncrement()] = e;
+                }
+            });
+            if (n.get() == before) break;
+
+            // drop the edges that no longer leave their component
+            m = compact(pool, live, m, scratch, uf, from, to);
+            edges = scratch;
+            scratch = live;
+        }
+
+        MinimumSpanningTree mst = new MinimumSpanningTree(accepted.length);
+        for (int i = 0; i < n.get(); i++) {
+            int e = accepted[i];
+            mst.add(from[e], to[e], weight[e]);
+        }
+        return mst;
+    }
+
+    // lower best[r] to edge e if e is lighter, breaking ties by edge id
+    private static void offer(AtomicIntegerArray best, int r, int e, double[] weight) {
+        while (true) {
+            int cur = best.get(r);
+            if (cur != -1 && (weight[cur] < weight[e] || (weight[cur] == weight[e] && cur < e)))
+                return;
+            if (best.compareAndSet(r, cur, e))
+                return;
+        }
+    }
+
+    // copies the edges of src[0..m) that join two components into dst, in
+    // order, and returns how many were kept
+    private static int compact(ForkJoinPool pool, final int[] src, int m, final int[] dst,
+                               final ConcurrentDisjointSet uf, final int[] from, final int[] to) {
+        final int blocks = Math.max(1, Math.min(m / 1024, 8 * pool.getParallelism()));
+        final int[] start = new int[blocks + 1];
+        final int size = (m + blocks - 1) / blocks;
+        final int M = m;
+        ParallelFor.run(pool, 0, blocks, 1, (lo, hi) -> {
+            for (int b = lo; b < hi; b++) {
+                int k = 0;
+                for (int i = b * size; i < Math.min(M, (b + 1) * size); i++) {
+                    int e = src[i];
+                    if (uf.find(from[e]) != uf.find(to[e]))
+                        k++;
+                }
+                start[b + 1] = k;
+            }
+        });
+        for (int b = 0; b < blocks; b++)
+            start[b + 1] += start[b];
+        ParallelFor.run(pool, 0, blocks, 1, (lo, hi) -> {
+            for (int b = lo; b < hi; b++) {
+                int k = start[b];
+                for (int i = b * size; i < Math.min(M, (b + 1) * size); i++) {
+                    int e = src[i];
+                    if (uf.find(from[e]) != uf.find(to[e]))
+                        dst[k++] = e;
+                }
+            }
+        });
+        return start[blocks];
+    }
+
+    /**
+     * Unit tests the {@code BoruvkaMST} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+        MinimumSpanningTree mst = BoruvkaMST.mst(G);
+        StdOut.println(mst);
+        StdOut.printf("kruskal: %.5f%n", KruskalMST.mst(G).weight());
+    }
+}
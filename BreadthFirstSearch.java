@@ -0,0 +1,156 @@
+/******************************************************************************
+ *  Compilation:  javac BreadthFirstSearch.java
+ *  Execution:    java BreadthFirstSearch filename.txt s
+ *  Dependencies: CsrGraph.java TraversalWorkspace.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
+ *
+ *  Sequential breadth-first search into a reusable workspace.
+ *
+ *  % java BreadthFirstSearch tinyG.txt 0
+ *  0 to 0 (0)
+ *  0 to 1 (1)
+ *  0 to 2 (1)
+ *  0 to 3 (2)
+ *  0 to 4 (2)
+ *  0 to 5 (1)
+ *  0 to 6 (1)
+ *  0 to 7 (-)
+ *  ...
+ *  4 queries per thread on 4 threads agree: true
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code BreadthFirstSearch} class runs single-source and
+ *  point-to-point breadth-first searches over an immutable
+ *  {@link CsrGraph}, writing distances and parents into a caller-supplied
+ *  {@link TraversalWorkspace}. Since the workspace is reset in constant
+ *  time, a query allocates nothing and costs time proportional only to the
+ *  part of the graph it reaches, which makes it suitable for answering many
+ *  small queries, from many threads, against one graph. For a single search
+ *  over a whole large graph, {@link DirectionOptimizingBFS} is faster.
+ */
+public class BreadthFirstSearch {
+
+    // this class should not be instantiated
+    private BreadthFirstSearch() { }
+
+    /**
+     * Resets {@code ws} and runs a breadth-first search from {@code s}; the
+     * results are read with {@link TraversalWorkspace#distTo(int)} and
+     * {@link TraversalWorkspace#parent(int)}.
+     *
+     * @param  G the graph
+     * @param  s the source vertex
+     * @param  ws the workspace to search in
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if {@code ws} is sized for a different
+     *         number of vertices
+     */
+    public static void search(CsrGraph G, int s, TraversalWorkspace ws) {
+        run(G, s, -1, ws);
+    }
+
+    /**
+     * Resets {@code ws} and returns the number of edges on a shortest path
+     * from {@code s} to {@code t}, stopping as soon as {@code t} is reached.
+     *
+     * @param  G the graph
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @param  ws the workspace to search in
+     * @return the number of edges on a shortest path from {@code s} to
+     *         {@code t}, or {@code Integer.MAX_VALUE} if there is none
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code ws} is sized for a different
+     *         number of vertices
+     */
+    public static int distance(CsrGraph G, int s, int t, TraversalWorkspace ws) {
+        if (t < 0 || t >= G.V())
+            throw new IndexOutOfBoundsException("vertex " + t + " is not between 0 and " + (G.V() - 1));
+        run(G, s, t, ws);
+        return ws.distTo(t);
+    }
+
+    // breadth-first search from s, stopping early when t is reached
+    private static void run(CsrGraph G, int s, int t, TraversalWorkspace ws) {
+        int V = G.V();
+        if (ws.V() != V) throw new IllegalArgumentException("Workspace is sized for " + ws.V() + " vertices, not " + V);
+        if (s < 0 || s >= V)
+            throw new IndexOutOfBoundsException("vertex " + s + " is not between 0 and " + (V - 1));
+        ws.reset();
+        int[] offsets = G.offsets();
+        int[] targets = G.targets();
+        int[] seen = ws.seen;
+        int[] dist = ws.dist;
+        int[] parent = ws.parent;
+        int[] queue = ws.queue;
+        int epoch = ws.epoch();
+
+        seen[s] = epoch;
+        dist[s] = 0;
+        parent[s] = s;
+        if (s == t) return;
+        int head = 0, tail = 0;
+        queue[tail++] = s;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = targets[i];
+                if (seen[w] == epoch) continue;
+                seen[w] = epoch;
+                dist[w] = dist[v] + 1;
+                parent[w] = v;
+                if (w == t) return;
+                queue[tail++] = w;
+            }
+        }
+    }
+
+    /**
+     * Unit tests the {@code BreadthFirstSearch} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) throws InterruptedException {
+        In in = new In(args[0]);
+        final CsrGraph G = new CsrGraph(in);
+        int s = Integer.parseInt(args[1]);
+
+        TraversalWorkspace ws = new TraversalWorkspace(G.V());
+        search(G, s, ws);
+        for (int v = 0; v < G.V(); v++) {
+            if (ws.visited(v)) StdOut.printf("%d to %d (%d)%n", s, v, ws.distTo(v));
+            else               StdOut.printf("%d to %d (-)%n", s, v);
+        }
+
+        // concurrent point-to-point queries sharing the graph, one workspace per thread
+        final TraversalWorkspace.Pool pool = new TraversalWorkspace.Pool(G.V());
+        final int threads = 4, queries = 4;
+        final boolean[] agree = new boolean[threads];
+        Thread[] workers = new Thread[threads];
+        for (int k = 0; k < threads; k++) {
+            final int id = k;
+            workers[k] = new Thread(new Runnable() {
+                public void run() {
+                    agree[id] = true;
+                    TraversalWorkspace reference = new TraversalWorkspace(G.V());
+                    for (int q = 0; q < queries; q++) {
+                        int a = (id * queries + q) % G.V();
+                        int b = (a * 7 + 3) % G.V();
+                        search(G, a, reference);
+                        if (distance(G, a, b, pool.get()) != reference.distTo(b))
+                            agree[id] = false;
+                    }
+                }
+            });
+            workers[k].start();
+        }
+        boolean all = true;
+        for (int k = 0; k < threads; k++) {
+            workers[k].join();
+            all &= agree[k];
+        }
+        StdOut.println(queries + " queries per thread on " + threads + " threads agree: " + all);
+    }
+}
@@ -0,0 +1,230 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentDisjointSet.java
+ *  Execution:    java ConcurrentDisjointSet n m threads
+ *  Dependencies: DisjointSet.java StdOut.java
+ *
+ *  Lock-free disjoint-set (union-find) data type for concurrent use.
+ *
+ *  % java ConcurrentDisjointSet 1000000 1000000 8
+ *  1000000 elements, 1000000 unions, 8 threads
+ *  sequential: 162066 components
+ *  concurrent: 162066 components
+ *  partitions agree
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code ConcurrentDisjointSet} class represents a disjoint-set
+ *  (union-find) data type over the elements 0 through <em>n</em> - 1 that
+ *  any number of threads may update and query at the same time without
+ *  locks. It supports the same <em>union</em>, <em>find</em>,
+ *  <em>connected</em> and <em>count</em> operations as {@link DisjointSet}.
+ *  <p>
+ *  The parent pointers live in an {@link AtomicIntegerArray}. A
+ *  <em>union</em> links the root with the larger index below the root with
+ *  the smaller index with a single compare-and-set, retrying if either root
+ *  changed underneath it; linking by index order means no cycle can ever
+ *  form. A <em>find</em> performs path splitting, replacing each parent
+ *  pointer on the path with the grandparent by compare-and-set, so that
+ *  concurrent finds shorten paths for each other and a failed update is
+ *  simply skipped.
+ *  <p>
+ *  All operations are linearizable. Once all updating threads have
+ *  finished, the partition is exactly the one a sequential
+ *  {@link DisjointSet} would produce for the same unions, in any order.
+ */
+public class ConcurrentDisjointSet {
+    private final AtomicIntegerArray parent;  // parent[i] = parent of i
+    private final AtomicInteger count;        // number of components
+
+    /**
+     * Initializes an empty disjoint-set data structure with {@code n}
+     * elements 0 through {@code n-1}, each in its own set.
+     *
+     * @param  n the number of elements
+     * @throws IllegalArgumentException if {@code n < 0}
+     */
+    public ConcurrentDisjointSet(int n) {
+        if (n < 0) throw new IllegalArgumentException("Number of elements must be nonnegative");
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++)
+            parent.lazySet(i, i);
+        count = new AtomicInteger(n);
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int n() {
+        return parent.length();
+    }
+
+    /**
+     * Returns the number of sets.
+     *
+     * @return the number of sets (between {@code 1} and {@code n})
+     */
+    public int count() {
+        return count.get();
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= p < n}
+    private void validate(int p) {
+        int n = parent.length();
+        if (p < 0 || p >= n)
+            throw new IndexOutOfBoundsException("index " + p + " is not between 0 and " + (n - 1));
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code p}.
+     * While other threads are calling {@link #union(int, int)}, the answer
+     * may be stale by the time it is returned.
+     *
+     * @param  p an element
+     * @return the canonical element of the set containing {@code p}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= p < n}
+     */
+    public int find(int p) {
+        validate(p);
+        return root(p);
+    }
+
+    // root of p's tree, with path splitting
+    private int root(int p) {
+        while (true) {
+            int q = parent.get(p);
+            if (q == p) return p;
+            int r = parent.get(q);
+            if (q != r) parent.compareAndSet(p, q, r);
+            p = q;
+        }
+    }
+
+    /**
+     * Returns true if the two elements are in the same set.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if {@code p} and {@code q} are in the same set;
+     *         {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean connected(int p, int q) {
+        validate(p);
+        validate(q);
+        while (true) {
+            int rootP = root(p);
+            int rootQ = root(q);
+            if (rootP == rootQ) return true;
+            // if rootP is still a root, the two were apart when we looked
+            if (parent.get(rootP) == rootP) return false;
+        }
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the set containing
+     * element {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if this call merged the two sets; {@code false} if
+     *         {@code p} and {@code q} were already in the same set
+     * @throws IndexOutOfBoundsException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean union(int p, int q) {
+        validate(p);
+        validate(q);
+        while (true) {
+            int rootP = root(p);
+            int rootQ = root(q);
+            if (rootP == rootQ) return false;
+            // link the larger index below the smaller one
+            if (rootP < rootQ) {
+                int t = rootP;
+                rootP = rootQ;
+                rootQ = t;
+            }
+            if (parent.compareAndSet(rootP, rootP, rootQ)) {
+                count.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Stress tests the {@code ConcurrentDisjointSet} data type: performs
+     * {@code m} random unions over {@code n} elements split across the given
+     * number of threads, and checks that the resulting partition matches
+     * the one a sequential {@link DisjointSet} computes for the same unions.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final int n = Integer.parseInt(args[0]);
+        final int m = Integer.parseInt(args[1]);
+        int threads = Integer.parseInt(args[2]);
+        StdOut.println(n + " elements, " + m + " unions, " + threads + " threads");
+
+        final int[] p = new int[m];
+        final int[] q = new int[m];
+        Random random = new Random(42);
+        for (int i = 0; i < m; i++) {
+            p[i] = random.nextInt(n);
+            q[i] = random.nextInt(n);
+        }
+
+        DisjointSet uf = new DisjointSet(n);
+        for (int i = 0; i < m; i++)
+            uf.union(p[i], q[i]);
+        StdOut.println("sequential: " + uf.count() + " components");
+
+        final ConcurrentDisjointSet cuf = new ConcurrentDisjointSet(n);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int lo = (int) ((long) m * t / threads);
+            final int hi = (int) ((long) m * (t + 1) / threads);
+            workers[t] = new Thread(new Runnable() {
+                public void run() {
+                    // interleave queries with updates to exercise path splitting
+                    for (int i = lo; i < hi; i++) {
+                        cuf.union(p[i], q[i]);
+                        cuf.connected(q[i], p[(i + 1) % p.length]);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+        StdOut.println("concurrent: " + cuf.count() + " components");
+
+        // the partitions agree iff the map from sequential root to
+        // concurrent root is a bijection
+        int[] image = new int[n];
+        int[] preimage = new int[n];
+        Arrays.fill(image, -1);
+        Arrays.fill(preimage, -1);
+        boolean agree = uf.count() == cuf.count();
+        for (int i = 0; i < n && agree; i++) {
+            int a = uf.find(i);
+            int b = cuf.find(i);
+            if (image[a] == -1 && preimage[b] == -1) {
+                image[a] = b;
+                preimage[b] = a;
+            }
+            else if (image[a] != b || preimage[b] != a) {
+                agree = false;
+            }
+        }
+        StdOut.println(agree ? "partitions agree" : "PARTITIONS DIFFER");
+    }
+}
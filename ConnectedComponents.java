@@ -0,0 +1,216 @@
+/******************************************************************************
+ *  Compilation:  javac ConnectedComponents.java
+ *  Execution:    java ConnectedComponents filename.txt
+ *  Dependencies: CsrGraph.java IntBag.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
+ *
+ *  Label the connected components of a graph in linear time.
+ *
+ *  % java ConnectedComponents tinyG.txt
+ *  3 components
+ *  0 1 2 3 4 5 6
+ *  7 8
+ *  9 10 11 12
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code ConnectedComponents} class labels the connected components of
+ *  a graph. Edges are followed in both directions, so for a graph built
+ *  with directed edges the components are its weakly connected components;
+ *  for an undirected graph they are the usual connected components.
+ *  <p>
+ *  The components are numbered 0 through <em>count</em> - 1 in increasing
+ *  order of their smallest vertex. This labeling is canonical: any
+ *  algorithm that finds the same partition produces the same
+ *  {@link #componentIds()}.
+ *  <p>
+ *  This implementation runs one breadth-first search per component over the
+ *  graph and its reverse, with an {@code int[]} queue, in time proportional
+ *  to <em>V</em> + <em>E</em>. Afterwards the <em>id</em>, <em>size</em>,
+ *  <em>connected</em> and <em>count</em> operations take constant time.
+ */
+public class ConnectedComponents {
+    private final int[] id;     // id[v] = id of component containing v
+    private final int[] size;   // size[id] = number of vertices in given component
+    private final int count;    // number of connected components
+
+    /**
+     * Computes the connected components of the graph {@code G}.
+     *
+     * @param  G the graph
+     */
+    public ConnectedComponents(CsrGraph G) {
+        int V = G.V();
+        int[] offsets = G.offsets();
+        int[] targets = G.targets();
+        CsrGraph R = G.reverse();
+        int[] rOffsets = R.offsets();
+        int[] rTargets = R.targets();
+
+        id = new int[V];
+        Arrays.fill(id, -1);
+        int[] queue = new int[V];
+        int[] sizes = new int[V];
+        int n = 0;
+        for (int s = 0; s < V; s++) {
+            if (id[s] != -1) continue;
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            id[s] = n;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int w = targets[i];
+                    if (id[w] == -1) {
+                        id[w] = n;
+                        queue[tail++] = w;
+                    }
+                }
+                for (int i = rOffsets[v]; i < rOffsets[v + 1]; i++) {
+                    int w = rTargets[i];
+                    if (id[w] == -1) {
+                        id[w] = n;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            sizes[n++] = tail;
+        }
+        count = n;
+        size = Arrays.copyOf(sizes, n);
+    }
+
+    /**
+     * Initializes the components from an arbitrary labeling, in which two
+     * vertices are in the same component if and only if they have the same
+     * label; the labels are renumbered into the canonical order.
+     *
+     * @param  label label[v] = any int naming the component of v, between
+     *         {@code 0} and {@code V-1}
+     */
+    ConnectedComponents(int[] label) {
+        int V = label.length;
+        int[] rename = new int[V];
+        Arrays.fill(rename, -1);
+        int[] sizes = new int[V];
+        id = new int[V];
+        int n = 0;
+        for (int v = 0; v < V; v++) {
+            int l = label[v];
+            if (rename[l] == -1) rename[l] = n++;
+            id[v] = rename[l];
+            sizes[id[v]]++;
+        }
+        count = n;
+        size = Arrays.copyOf(sizes, n);
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = id.length;
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the component id of the connected component containing vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the component id of the connected component containing vertex {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int id(int v) {
+        validateVertex(v);
+        return id[v];
+    }
+
+    /**
+     * Returns the number of vertices in the connected component containing vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the number of vertices in the connected component containing vertex {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int size(int v) {
+        validateVertex(v);
+        return size[id[v]];
+    }
+
+    /**
+     * Returns the number of connected components in the graph.
+     *
+     * @return the number of connected components in the graph
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns true if vertices {@code v} and {@code w} are in the same
+     * connected component.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return {@code true} if vertices {@code v} and {@code w} are in the same
+     *         connected component; {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= w < V}
+     */
+    public boolean connected(int v, int w) {
+        return id(v) == id(w);
+    }
+
+    /**
+     * Returns a copy of the component labeling: element <em>v</em> is the id
+     * of the component containing vertex <em>v</em>.
+     *
+     * @return the component id of every vertex
+     */
+    public int[] componentIds() {
+        return id.clone();
+    }
+
+    /**
+     * Returns a copy of the component sizes: element <em>i</em> is the number
+     * of vertices in component <em>i</em>.
+     *
+     * @return the size of every component
+     */
+    public int[] componentSizes() {
+        return size.clone();
+    }
+
+    /**
+     * Unit tests the {@code ConnectedComponents} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        ConnectedComponents cc = new ConnectedComponents(G);
+
+        // number of connected components
+        int m = cc.count();
+        StdOut.println(m + " components");
+
+        // compute list of vertices in each connected component
+        IntBag[] components = new IntBag[m];
+        for (int i = 0; i < m; i++) {
+            components[i] = new IntBag();
+        }
+        for (int v = G.V() - 1; v >= 0; v--) {
+            components[cc.id(v)].add(v);
+        }
+
+        // print results
+        for (int i = 0; i < m; i++) {
+            final StringBuilder s = new StringBuilder();
+            components[i].forEach(v -> s.append(v + " "));
+            StdOut.println(s);
+        }
+    }
+}
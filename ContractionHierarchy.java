@@ -0,0 +1,893 @@
+/******************************************************************************
+ *  Compilation:  javac ContractionHierarchy.java
+ *  Execution:    java ContractionHierarchy filename.txt s t
+ *  Dependencies: CsrEdgeWeightedGraph.java EdgeWeightedGraph.java
+ *                ShortestPathWorkspace.java IndexDaryMinPQ.java IntBag.java
+ *                ParallelFor.java DijkstraSP.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  Contraction hierarchies: preprocess an edge-weighted graph once, then
+ *  answer shortest-path queries with two small upward searches.
+ *
+ *  % java ContractionHierarchy krusGraph.txt 0 5
+ *  8 vertices preprocessed in 21.8 ms: 13 upward edges, 1 shortcuts, 0 in the core
+ *  0 to 5 (0.67):  0-7-1-5
+ *  1000 queries agree with DijkstraSP: true
+ *  1000 paths are simple shortest paths: true
+ *  query:               1.3 us
+ *  saved and reloaded: true
+ *
+ ******************************************************************************/
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  The {@code ContractionHierarchy} class preprocesses an undirected graph
+ *  with nonnegative edge weights so that point-to-point shortest-path
+ *  queries touch only a small part of it. Any number of threads may query
+ *  one instance at once.
+ *  <p>
+ *  Preprocessing contracts the vertices one at a time, in order of
+ *  importance. Contracting <em>v</em> removes it from the graph and, for
+ *  each pair of its remaining neighbors <em>a</em> and <em>b</em>, adds a
+ *  <em>shortcut</em> edge <em>a</em>-<em>b</em> of weight
+ *  <em>w</em>(<em>a</em>, <em>v</em>) + <em>w</em>(<em>v</em>, <em>b</em>)
+ *  unless a <em>witness search</em>, a bounded Dijkstra search from
+ *  <em>a</em> that avoids <em>v</em>, finds a shorter path to <em>b</em>;
+ *  witness searches settle a bounded number of vertices and follow paths of
+ *  a bounded number of edges, so they may miss a witness and add a shortcut
+ *  that is not needed, but never a wrong one. The next vertices to contract
+ *  are those whose priority is smaller than that of all their neighbors,
+ *  where the priority is twice the <em>edge difference</em> (shortcuts
+ *  added minus edges removed) plus the number of neighbors already
+ *  contracted, which spreads the contractions evenly over the graph. These
+ *  vertices form an independent set, so their witness searches run in
+ *  parallel on a {@link ForkJoinPool} and they are contracted in one round;
+ *  requiring witnesses to be strictly shorter makes this safe. A vertex
+ *  whose priority turns out higher, once its shortcuts are known, than that
+ *  of one of its neighbors is put off to a later round. Only the priorities
+ *  of the neighbors of contracted vertices are then recomputed, again in
+ *  parallel, and with cheaper witness searches than the ones that decide
+ *  which shortcuts to add.
+ *  <p>
+ *  How well this works depends on the graph. Road networks and grids have a
+ *  natural hierarchy: the remaining graph stays sparse to the end, and a
+ *  query settles a few hundred vertices. A sparse random graph has none:
+ *  contracting it quickly leaves a dense remainder, where every vertex
+ *  costs many witness searches and adds many shortcuts. Contraction
+ *  therefore stops once the average degree of the remaining graph exceeds
+ *  24, and leaves that remainder as the <em>core</em>, whose vertices keep
+ *  all their edges. On such graphs preprocessing stays fast, but a query
+ *  costs about as much as a bidirectional Dijkstra search of the core.
+ *  <p>
+ *  The hierarchy is stored as compact arrays: each vertex's <em>upward</em>
+ *  edges (to neighbors contracted after it), in compressed sparse row form,
+ *  with a weight and, for a shortcut, the vertex it bypasses. Every
+ *  shortest path has a version in the hierarchy that goes up, possibly
+ *  through the core, and then down, so a query runs Dijkstra's algorithm
+ *  upward from both ends, stops each side once its queue holds nothing
+ *  shorter than the best meeting point, and skips any vertex that a higher
+ *  neighbor already reaches more cheaply (stall-on-demand). The core
+ *  vertices these searches reach are then the sources of a bidirectional
+ *  Dijkstra search of the core, which stops as soon as the smallest keys of
+ *  its two sides add up to the best path length seen. Shortcuts are
+ *  unpacked recursively to return the path, and any loop that zero-weight
+ *  edges leave in it, which has length zero, is cut out.
+ *  {@link #save(String)} and {@link #load(String)} write and read the
+ *  arrays, so preprocessing need not be repeated.
+ */
+public class ContractionHierarchy {
+    private static final int MAGIC = 0x43480002;      // identifies the file format, version 2
+    private static final int SETTLE_LIMIT = 500;      // vertices settled per witness search
+    private static final int ESTIMATE_LIMIT = 50;     // the same, when only estimating a priority
+    private static final int HOP_LIMIT = 5;           // edges on a witness path
+    private static final int ESTIMATE_HOPS = 2;       // the same, when only estimating a priority
+    private static final int CORE_DEGREE = 24;        // average degree at which contraction stops
+
+    private final int V;
+    private final int[] rank;       // rank[v] = position of v in the contraction order
+    private final int[] offsets;    // v's upward edges are offsets[v] .. offsets[v+1]-1
+    private final int[] targets;    // targets[i] = upper endpoint of upward edge i
+    private final double[] weights; // weights[i] = weight of upward edge i
+    private final int[] middle;     // middle[i] = vertex bypassed by shortcut i, or -1
+    private final int core;         // rank of the first vertex of the core, or V if none
+    private final ShortestPathWorkspace.Pool forward, backward;
+    private final ThreadLocal<IndexDaryMinPQ> forwardCore, backwardCore;
+
+    /**
+     * Preprocesses the graph {@code G} on the common fork/join pool.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if an edge has negative weight
+     */
+    public ContractionHierarchy(CsrEdgeWeightedGraph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Preprocesses a copy of the graph {@code G} on the common fork/join
+     * pool.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if an edge has negative weight
+     */
+    public ContractionHierarchy(EdgeWeightedGraph G) {
+        this(new CsrEdgeWeightedGraph(G));
+    }
+
+    /**
+     * Preprocesses the graph {@code G} on the given pool.
+     *
+     * @param  G the edge-weighted graph
+     * @param  pool the pool to run the witness searches on
+     * @throws IllegalArgumentException if an edge has negative weight
+     */
+    public ContractionHierarchy(CsrEdgeWeightedGraph G, ForkJoinPool pool) {
+        this(new Contraction(G, pool));
+    }
+
+    private ContractionHierarchy(Contraction c) {
+        this(c.V, c.rank, c.upOffsets, c.upTargets, c.upWeights, c.upMiddle, c.core);
+    }
+
+    private ContractionHierarchy(int V, int[] rank, int[] offsets, int[] targets,
+                                 double[] weights, int[] middle, int core) {
+        this.V = V;
+        this.rank = rank;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.middle = middle;
+        this.core = core;
+        this.forward = new ShortestPathWorkspace.Pool(V);
+        this.backward = new ShortestPathWorkspace.Pool(V);
+        this.forwardCore = queues(V);
+        this.backwardCore = queues(V);
+    }
+
+    // one priority queue per thread, for the searches of the core
+    private static ThreadLocal<IndexDaryMinPQ> queues(final int V) {
+        return new ThreadLocal<IndexDaryMinPQ>() {
+            protected IndexDaryMinPQ initialValue() {
+                return new IndexDaryMinPQ(V);
+            }
+        };
+    }
+
+    // the graph during preprocessing: adjacency lists of the vertices not
+    // yet contracted, which shrink and gain shortcuts as vertices go
+    private static class Contraction {
+        final int V;
+        final ForkJoinPool pool;
+        final ShortestPathWorkspace.Pool witness;
+        final ThreadLocal<int[]> hops;  // hops[x] = edges on the witness path to x
+        final int[][] adj;           // adj[v][0 .. degree[v]) = remaining neighbors of v
+        final double[][] adjWeight;  // weight of the edge to each of them
+        final int[][] adjMiddle;     // vertex bypassed by that edge, or -1
+        final int[] degree;
+        final int[] priority;        // twice the edge difference, plus contracted neighbors
+        final int[] contracted;      // number of contracted neighbors
+        final int[] rank;            // contraction order, or -1 if not yet contracted
+        int core;                    // rank of the first vertex of the core
+        int[] upOffsets, upTargets, upMiddle;
+        double[] upWeights;
+
+        Contraction(CsrEdgeWeightedGraph G, ForkJoinPool pool) {
+            this.V = G.V();
+            this.pool = pool;
+            this.witness = new ShortestPathWorkspace.Pool(V);
+            this.hops = new ThreadLocal<int[]>() {
+                protected int[] initialValue() {
+                    return new int[V];
+                }
+            };
+            adj = new int[V][];
+            adjWeight = new double[V][];
+            adjMiddle = new int[V][];
+            degree = new int[V];
+            priority = new int[V];
+            contracted = new int[V];
+            rank = new int[V];
+            Arrays.fill(rank, -1);
+            for (int v = 0; v < V; v++) {
+                int d = Math.max(G.degree(v), 1);
+                adj[v] = new int[d];
+                adjWeight[v] = new double[d];
+                adjMiddle[v] = new int[d];
+            }
+            int[] from = G.fromArray();
+            int[] to = G.toArray();
+            double[] weight = G.weightArray();
+            for (int e = 0; e < G.E(); e++) {
+                if (weight[e] < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+                if (from[e] != to[e]) addEdge(from[e], to[e], weight[e], -1);
+            }
+            contract();
+        }
+
+        // adds the edge v-w, or lowers the weight of the existing one
+        private void addEdge(int v, int w, double weight, int mid) {
+            for (int i = 0; i < degree[v]; i++) {
+                if (adj[v][i] != w) continue;
+                if (weight < adjWeight[v][i]) {
+                    adjWeight[v][i] = weight;
+                    adjMiddle[v][i] = mid;
+                    for (int j = 0; j < degree[w]; j++) {
+                        if (adj[w][j] == v) {
+                            adjWeight[w][j] = weight;
+                            adjMiddle[w][j] = mid;
+                        }
+                    }
+                }
+                return;
+            }
+            append(v, w, weight, mid);
+            append(w, v, weight, mid);
+        }
+
+        private void append(int v, int w, double weight, int mid) {
+            int n = degree[v];
+            if (n == adj[v].length) {
+                adj[v] = Arrays.copyOf(adj[v], 2 * n);
+                adjWeight[v] = Arrays.copyOf(adjWeight[v], 2 * n);
+                adjMiddle[v] = Arrays.copyOf(adjMiddle[v], 2 * n);
+            }
+            adj[v][n] = w;
+            adjWeight[v][n] = weight;
+            adjMiddle[v][n] = mid;
+            degree[v] = n + 1;
+        }
+
+        // removes w from v's list
+        private void removeEdge(int v, int w) {
+            int n = degree[v] - 1;
+            for (int i = 0; i <= n; i++) {
+                if (adj[v][i] == w) {
+                    adj[v][i] = adj[v][n];
+                    adjWeight[v][i] = adjWeight[v][n];
+                    adjMiddle[v][i] = adjMiddle[v][n];
+                    degree[v] = n;
+                    return;
+                }
+            }
+        }
+
+        // returns the number of shortcuts that contracting v would add; if
+        // pairs is not null, also adds the positions in adj[v] of the two
+        // endpoints of each shortcut to it
+        private int shortcuts(int v, IntBag pairs) {
+            int n = degree[v];
+            int[] nbr = adj[v];
+            double[] wt = adjWeight[v];
+            int count = 0;
+            for (int i = 0; i < n - 1; i++) {
+                ShortestPathWorkspace ws = witness.get();
+                int epoch = ws.epoch();
+                double limit = 0.0;
+                for (int j = i + 1; j < n; j++) {
+                    limit = Math.max(limit, wt[i] + wt[j]);
+                    ws.parent[nbr[j]] = epoch;
+                }
+                if (pairs == null) witnessSearch(nbr[i], v, limit, n - 1 - i, ESTIMATE_LIMIT, ESTIMATE_HOPS, ws);
+                else               witnessSearch(nbr[i], v, limit, n - 1 - i, SETTLE_LIMIT, HOP_LIMIT, ws);
+                for (int j = i + 1; j < n; j++) {
+                    int b = nbr[j];
+                    if (ws.seen[b] == epoch && ws.dist[b] < wt[i] + wt[j]) continue;
+                    count++;
+                    if (pairs != null) {
+                        pairs.add(i);
+                        pairs.add(j);
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Dijkstra's algorithm from s in the remaining graph without v,
+        // settling no vertex farther than limit and at most settleLimit in
+        // all, following paths of at most hopLimit edges, and stopping once
+        // all the targets are settled; a witness search records no parents,
+        // so parent[x] == epoch marks x as one of the targets
+        private void witnessSearch(int s, int v, double limit, int targets,
+                                   int settleLimit, int hopLimit, ShortestPathWorkspace ws) {
+            int[] seen = ws.seen;
+            int[] done = ws.done;
+            double[] dist = ws.dist;
+            int[] target = ws.parent;
+            int[] hop = hops.get();
+            IndexDaryMinPQ pq = ws.pq;
+            int epoch = ws.epoch();
+            seen[s] = epoch;
+            dist[s] = 0.0;
+            hop[s] = 0;
+            pq.insert(s, 0.0);
+            int settled = 0;
+            while (!pq.isEmpty() && pq.minKey() <= limit && settled++ < settleLimit) {
+                int x = pq.delMin();
+                done[x] = epoch;
+                if (target[x] == epoch && --targets == 0) return;
+                if (hop[x] == hopLimit) continue;
+                for (int i = 0; i < degree[x]; i++) {
+                    int y = adj[x][i];
+                    if (y == v || done[y] == epoch) continue;
+                    double d = dist[x] + adjWeight[x][i];
+                    if (seen[y] != epoch) {
+                        seen[y] = epoch;
+                        dist[y] = d;
+                        hop[y] = hop[x] + 1;
+                        pq.insert(y, d);
+                    }
+                    else if (d < dist[y]) {
+                        dist[y] = d;
+                        hop[y] = hop[x] + 1;
+                        pq.decreaseKey(y, d);
+                    }
+                }
+            }
+        }
+
+        private void updatePriorities(final int[] vertices, int n) {
+            ParallelFor.run(pool, 0, n, ParallelFor.grain(pool, n, 16), (lo, hi) -> {
+                for (int k = lo; k < hi; k++) {
+                    int v = vertices[k];
+                    priority[v] = 2 * (shortcuts(v, null) - degree[v]) + contracted[v];
+                }
+            });
+        }
+
+        // does v come before its neighbor w in the contraction order?
+        private boolean before(int v, int w) {
+            return priority[v] < priority[w] || (priority[v] == priority[w] && v < w);
+        }
+
+        private void contract() {
+            int[] remaining = new int[V];
+            for (int v = 0; v < V; v++)
+                remaining[v] = v;
+            int n = V;
+            updatePriorities(remaining, n);
+
+            int[][] upTarget = new int[V][];
+            double[][] upWeight = new double[V][];
+            int[][] upMid = new int[V][];
+            int[] dirty = new int[V];   // dirty[v] == round iff v needs a new priority
+            int[] changed = new int[V];
+            int next = 0;
+            core = V;
+            for (int round = 1; n > 0; round++) {
+                // a remaining graph this dense has no hierarchy to exploit:
+                // leave it as the core, ranked last and keeping all its edges
+                long total = 0;
+                for (int k = 0; k < n; k++)
+                    total += degree[remaining[k]];
+                if (total > (long) CORE_DEGREE * n) {
+                    core = next;
+                    for (int k = 0; k < n; k++) {
+                        int v = remaining[k];
+                        rank[v] = next++;
+                        upTarget[v] = Arrays.copyOf(adj[v], degree[v]);
+                        upWeight[v] = Arrays.copyOf(adjWeight[v], degree[v]);
+                        upMid[v] = Arrays.copyOf(adjMiddle[v], degree[v]);
+                    }
+                    break;
+                }
+
+                // the vertices that come before all their neighbors
+                final int[] candidates = remaining;
+                final int[] selected = new int[n];
+                final AtomicInteger count = new AtomicInteger();
+                ParallelFor.run(pool, 0, n, ParallelFor.grain(pool, n, 256), (lo, hi) -> {
+                    IntBag local = new IntBag();
+                    for (int k = lo; k < hi; k++) {
+                        int v = candidates[k];
+                        boolean minimal = true;
+                        for (int i = 0; i < degree[v] && minimal; i++)
+                            minimal = before(v, adj[v][i]);
+                        if (minimal) local.add(v);
+                    }
+                    local.copyTo(selected, count.getAndAdd(local.size()));
+                });
+                final int m = count.get();
+
+                // their shortcuts, found in parallel
+                final IntBag[] pairs = new IntBag[m];
+                ParallelFor.run(pool, 0, m, ParallelFor.grain(pool, m, 4), (lo, hi) -> {
+                    for (int k = lo; k < hi; k++) {
+                        pairs[k] = new IntBag();
+                        shortcuts(selected[k], pairs[k]);
+                    }
+                });
+
+                // put off any of them whose priority, now known exactly, is
+                // no longer the smallest among its neighbors'
+                final boolean[] deferred = new boolean[m];
+                for (int k = 0; k < m; k++) {
+                    int v = selected[k];
+                    int exact = 2 * (pairs[k].size() / 2 - degree[v]) + contracted[v];
+                    if (exact <= priority[v]) continue;
+                    priority[v] = exact;
+                    for (int i = 0; i < degree[v] && !deferred[k]; i++)
+                        deferred[k] = !before(v, adj[v][i]);
+                }
+
+                // contract the others one after another; no two are adjacent,
+                // so the shortcuts found above are still the ones to add
+                int c = 0;
+                for (int k = 0; k < m; k++) {
+                    if (deferred[k]) continue;
+                    int v = selected[k];
+                    int d = degree[v];
+                    rank[v] = next++;
+                    upTarget[v] = Arrays.copyOf(adj[v], d);
+                    upWeight[v] = Arrays.copyOf(adjWeight[v], d);
+                    upMid[v] = Arrays.copyOf(adjMiddle[v], d);
+                    for (int i = 0; i < d; i++) {
+                        int w = upTarget[v][i];
+                        removeEdge(w, v);
+                        contracted[w]++;
+                        if (dirty[w] != round) {
+                            dirty[w] = round;
+                            changed[c++] = w;
+                        }
+                    }
+                    int[] p = new int[pairs[k].size()];
+                    pairs[k].copyTo(p, 0);
+                    for (int q = 0; q < p.length; q += 2) {
+                        int i = p[q + 1], j = p[q];   // copyTo reverses the order
+                        addEdge(upTarget[v][i], upTarget[v][j], upWeight[v][i] + upWeight[v][j], v);
+                    }
+                    degree[v] = 0;
+                }
+
+                int r = 0;
+                for (int k = 0; k < n; k++)
+                    if (rank[remaining[k]] == -1) remaining[r++] = remaining[k];
+                n = r;
+                updatePriorities(changed, c);
+            }
+
+            upOffsets = new int[V + 1];
+            for (int v = 0; v < V; v++)
+                upOffsets[v + 1] = upOffsets[v] + upTarget[v].length;
+            int M = upOffsets[V];
+            upTargets = new int[M];
+            upWeights = new double[M];
+            upMiddle = new int[M];
+            for (int v = 0; v < V; v++) {
+                System.arraycopy(upTarget[v], 0, upTargets, upOffsets[v], upTarget[v].length);
+                System.arraycopy(upWeight[v], 0, upWeights, upOffsets[v], upWeight[v].length);
+                System.arraycopy(upMid[v], 0, upMiddle, upOffsets[v], upMid[v].length);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of upward edges in the hierarchy, shortcuts included.
+     *
+     * @return the number of upward edges
+     */
+    public int edges() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the number of shortcuts in the hierarchy.
+     *
+     * @return the number of shortcuts
+     */
+    public int shortcuts() {
+        int count = 0;
+        for (int i = 0; i < middle.length; i++)
+            if (middle[i] != -1) count++;
+        return count;
+    }
+
+    /**
+     * Returns the number of vertices left uncontracted in the core.
+     *
+     * @return the number of core vertices
+     */
+    public int coreSize() {
+        return V - core;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the length of a shortest path from {@code s} to {@code t}, or
+     *         {@code Double.POSITIVE_INFINITY} if there is none
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double distance(int s, int t) {
+        ShortestPathWorkspace fw = forward.get();
+        ShortestPathWorkspace bw = backward.get();
+        int meet = search(s, t, fw, bw);
+        return meet == -1 ? Double.POSITIVE_INFINITY : fw.dist[meet] + bw.dist[meet];
+    }
+
+    /**
+     * Returns a shortest path from {@code s} to {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the vertices on a shortest simple path from {@code s} to
+     *         {@code t}, in order, or {@code null} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public int[] path(int s, int t) {
+        ShortestPathWorkspace fw = forward.get();
+        ShortestPathWorkspace bw = backward.get();
+        int meet = search(s, t, fw, bw);
+        if (meet == -1) return null;
+
+        // the path in the hierarchy goes up from s to meet, then down to t
+        int[] up = fw.pathTo(meet);
+        int[] down = bw.pathTo(meet);
+        int[] hops = new int[up.length + down.length - 1];
+        System.arraycopy(up, 0, hops, 0, up.length);
+        for (int i = 1; i < down.length; i++)
+            hops[up.length - 1 + i] = down[down.length - 1 - i];
+
+        // replace each shortcut by the two edges it stands for, depth first;
+        // with zero-weight edges the result may revisit a vertex, and the
+        // loop in between has length zero, so it is cut out (fw's marks,
+        // no longer needed, record where each vertex was added)
+        fw.reset();
+        int epoch = fw.epoch();
+        int[] onPath = fw.seen;
+        int[] position = fw.parent;
+        int[] path = new int[hops.length];
+        int n = 0;
+        path[n++] = s;
+        onPath[s] = epoch;
+        position[s] = 0;
+        int[] stack = new int[16];
+        for (int h = 0; h + 1 < hops.length; h++) {
+            int sp = 0;
+            stack[sp++] = hops[h];
+            stack[sp++] = hops[h + 1];
+            while (sp > 0) {
+                int y = stack[--sp];
+                int x = stack[--sp];
+                int mid = middle[edgeBetween(x, y)];
+                if (mid == -1) {
+                    if (onPath[y] == epoch && position[y] < n && path[position[y]] == y) {
+                        n = position[y] + 1;
+                        continue;
+                    }
+                    if (n == path.length) path = Arrays.copyOf(path, 2 * n);
+                    onPath[y] = epoch;
+                    position[y] = n;
+                    path[n++] = y;
+                    continue;
+                }
+                if (sp + 4 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+                stack[sp++] = mid;
+                stack[sp++] = y;
+                stack[sp++] = x;
+                stack[sp++] = mid;
+            }
+        }
+        return Arrays.copyOf(path, n);
+    }
+
+    // the index of the upward edge between x and y
+    private int edgeBetween(int x, int y) {
+        int low = rank[x] < rank[y] ? x : y;
+        int high = low == x ? y : x;
+        for (int i = offsets[low]; i < offsets[low + 1]; i++)
+            if (targets[i] == high) return i;
+        throw new IllegalStateException("no edge " + x + "-" + y + " in the hierarchy");
+    }
+
+    // upward searches from s and t, then searches of the core from the
+    // core vertices they reach; returns the vertex where the two halves of
+    // a shortest path meet, or -1 if t cannot be reached from s
+    private int search(int s, int t, ShortestPathWorkspace fw, ShortestPathWorkspace bw) {
+        validateVertex(t);
+        DijkstraSP.start(V, s, fw);
+        DijkstraSP.start(V, t, bw);
+        if (s == t) return s;
+        IndexDaryMinPQ fc = null, bc = null;
+        if (core < V) {
+            fc = forwardCore.get();
+            bc = backwardCore.get();
+            fc.clear();
+            bc.clear();
+        }
+
+        double mu = Double.POSITIVE_INFINITY;   // length of the shortest s-t path seen
+        int meet = -1;
+        while (true) {
+            double kf = fw.pq.isEmpty() ? Double.POSITIVE_INFINITY : fw.pq.minKey();
+            double kb = bw.pq.isEmpty() ? Double.POSITIVE_INFINITY : bw.pq.minKey();
+            if (Math.min(kf, kb) >= mu) break;
+            ShortestPathWorkspace near, far;
+            if (kf <= kb) { near = fw; far = bw; }
+            else          { near = bw; far = fw; }
+
+            int epoch = near.epoch();
+            int farEpoch = far.epoch();
+            int v = near.pq.delMin();
+            double dv = near.dist[v];
+
+            // a core vertex waits for the search of the core
+            if (rank[v] >= core) {
+                (near == fw ? fc : bc).insert(v, dv);
+                continue;
+            }
+            near.done[v] = epoch;
+
+            // stall v if a higher neighbor reaches it more cheaply; the
+            // graph is undirected, so the upward edges serve both ways
+            boolean stalled = false;
+            for (int i = offsets[v]; i < offsets[v + 1] && !stalled; i++) {
+                int w = targets[i];
+                stalled = near.seen[w] == epoch && near.dist[w] + weights[i] < dv;
+            }
+            if (stalled) continue;
+
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = targets[i];
+                double d = dv + weights[i];
+                if (near.seen[w] == epoch) {
+                    if (d >= near.dist[w]) continue;
+                    near.pq.decreaseKey(w, d);
+                }
+                else {
+                    near.seen[w] = epoch;
+                    near.pq.insert(w, d);
+                }
+                near.dist[w] = d;
+                near.parent[w] = v;
+                if (far.seen[w] == farEpoch && d + far.dist[w] < mu) {
+                    mu = d + far.dist[w];
+                    meet = w;
+                }
+            }
+        }
+        if (core == V) return meet;
+
+        // the core keeps all its edges, so it is searched from both sides
+        // by Dijkstra's algorithm, which may stop once the smallest keys of
+        // the two sides add up to mu
+        while (true) {
+            double kf = fc.isEmpty() ? Double.POSITIVE_INFINITY : fc.minKey();
+            double kb = bc.isEmpty() ? Double.POSITIVE_INFINITY : bc.minKey();
+            if (kf + kb >= mu) break;
+            ShortestPathWorkspace near, far;
+            IndexDaryMinPQ queue;
+            if (kf <= kb) { near = fw; far = bw; queue = fc; }
+            else          { near = bw; far = fw; queue = bc; }
+
+            int epoch = near.epoch();
+            int farEpoch = far.epoch();
+            int v = queue.delMin();
+            near.done[v] = epoch;
+            double dv = near.dist[v];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int w = targets[i];
+                double d = dv + weights[i];
+                if (near.seen[w] == epoch && d >= near.dist[w]) continue;
+                near.seen[w] = epoch;
+                queue.insertOrDecrease(w, d);
+                near.dist[w] = d;
+                near.parent[w] = v;
+                if (far.seen[w] == farEpoch && d + far.dist[w] < mu) {
+                    mu = d + far.dist[w];
+                    meet = w;
+                }
+            }
+        }
+        return meet;
+    }
+
+    /**
+     * Writes the hierarchy to the file {@code filename} in a compact binary
+     * format: the contraction order and the upward edges as flat arrays.
+     *
+     * @param  filename the name of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(String filename) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(V);
+            out.writeInt(targets.length);
+            out.writeInt(core);
+            for (int v = 0; v < V; v++)
+                out.writeInt(rank[v]);
+            for (int v = 0; v <= V; v++)
+                out.writeInt(offsets[v]);
+            for (int i = 0; i < targets.length; i++) {
+                out.writeInt(targets[i]);
+                out.writeDouble(weights[i]);
+                out.writeInt(middle[i]);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #save(String)} from the file
+     * {@code filename}.
+     *
+     * @param  filename the name of the file
+     * @return the hierarchy
+     * @throws IOException if the file cannot be read or is not in the
+     *         format written by {@code save}
+     */
+    public static ContractionHierarchy load(String filename) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)));
+        try {
+            if (in.readInt() != MAGIC) throw new IOException(filename + " is not a contraction hierarchy");
+            int V = in.readInt();
+            int M = in.readInt();
+            int core = in.readInt();
+
+            // check the header against the file size before allocating
+            if (V < 0 || M < 0 || core < 0 || core > V)
+                throw new IOException(filename + " has a corrupt header");
+            long size = 16 + 4L * V + 4L * (V + 1) + 16L * M;
+            if (new File(filename).length() != size)
+                throw new IOException(filename + " has " + new File(filename).length() + " bytes, not " + size);
+
+            int[] rank = new int[V];
+            boolean[] ranked = new boolean[V];
+            for (int v = 0; v < V; v++) {
+                rank[v] = in.readInt();
+                if (rank[v] < 0 || rank[v] >= V || ranked[rank[v]])
+                    throw new IOException(filename + " has a corrupt contraction order");
+                ranked[rank[v]] = true;
+            }
+            int[] offsets = new int[V + 1];
+            for (int v = 0; v <= V; v++) {
+                offsets[v] = in.readInt();
+                if (v == 0 ? offsets[v] != 0 : offsets[v] < offsets[v - 1])
+                    throw new IOException(filename + " has corrupt edge offsets");
+            }
+            if (offsets[V] != M) throw new IOException(filename + " has corrupt edge offsets");
+            int[] targets = new int[M];
+            double[] weights = new double[M];
+            int[] middle = new int[M];
+            for (int i = 0; i < M; i++) {
+                targets[i] = in.readInt();
+                weights[i] = in.readDouble();
+                middle[i] = in.readInt();
+                if (targets[i] < 0 || targets[i] >= V || !(weights[i] >= 0) || middle[i] < -1 || middle[i] >= V)
+                    throw new IOException(filename + " has a corrupt edge " + i);
+            }
+            return new ContractionHierarchy(V, rank, offsets, targets, weights, middle, core);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    // the weight of the lightest edge v-w of G, or infinity if there is none
+    private static double lightestEdge(CsrEdgeWeightedGraph G, int v, int w) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = G.begin(v); i < G.end(v); i++) {
+            int e = G.edgeAt(i);
+            if (G.other(e, v) == w) min = Math.min(min, G.weight(e));
+        }
+        return min;
+    }
+
+    /**
+     * Unit tests the {@code ContractionHierarchy} data type, comparing it
+     * with {@link DijkstraSP} on random queries.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) throws IOException {
+        In in = new In(args[0]);
+        CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+        int s = Integer.parseInt(args[1]);
+        int t = Integer.parseInt(args[2]);
+        int V = G.V();
+
+        long start = System.nanoTime();
+        ContractionHierarchy ch = new ContractionHierarchy(G);
+        long preprocessing = System.nanoTime() - start;
+        StdOut.printf("%d vertices preprocessed in %.1f ms: %d upward edges, %d shortcuts, %d in the core%n",
+                      V, preprocessing / 1e6, ch.edges(), ch.shortcuts(), ch.coreSize());
+
+        int[] path = ch.path(s, t);
+        if (path == null) {
+            StdOut.printf("%d to %d (-):  not connected%n", s, t);
+        }
+        else {
+            StdOut.printf("%d to %d (%.2f):  ", s, t, ch.distance(s, t));
+            for (int i = 0; i < path.length; i++) {
+                if (i == 0) StdOut.print(path[i]);
+                else        StdOut.print("-" + path[i]);
+            }
+            StdOut.println();
+        }
+
+        // random queries against Dijkstra's algorithm, then timed
+        int queries = 1000;
+        int[] a = new int[queries];
+        int[] b = new int[queries];
+        Random random = new Random(0);
+        for (int q = 0; q < queries; q++) {
+            a[q] = random.nextInt(V);
+            b[q] = random.nextInt(V);
+        }
+        ShortestPathWorkspace ws = new ShortestPathWorkspace(V);
+        boolean agree = true;
+        for (int q = 0; q < queries; q++) {
+            double expected = DijkstraSP.distance(G, a[q], b[q], ws);
+            double d = ch.distance(a[q], b[q]);
+            agree &= d == expected || Math.abs(d - expected) <= 1e-9 * expected;
+        }
+        StdOut.println(queries + " queries agree with DijkstraSP: " + agree);
+
+        // their paths are simple and as long as the distances
+        int[] mark = new int[V];
+        boolean simple = true;
+        for (int q = 0; q < queries; q++) {
+            int[] p = ch.path(a[q], b[q]);
+            double d = ch.distance(a[q], b[q]);
+            if (p == null) {
+                simple &= d == Double.POSITIVE_INFINITY;
+                continue;
+            }
+            simple &= p[0] == a[q] && p[p.length - 1] == b[q];
+            double length = 0.0;
+            for (int i = 0; i < p.length; i++) {
+                simple &= mark[p[i]] != q + 1;
+                mark[p[i]] = q + 1;
+                if (i > 0) length += lightestEdge(G, p[i - 1], p[i]);
+            }
+            simple &= Math.abs(length - d) <= 1e-9 * Math.max(1.0, d);
+        }
+        StdOut.println(queries + " paths are simple shortest paths: " + simple);
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++)
+            ch.distance(a[q], b[q]);
+        StdOut.printf("query:          %8.1f us%n", (System.nanoTime() - start) / 1e3 / queries);
+
+        // a saved hierarchy answers the same queries
+        File file = File.createTempFile("hierarchy", ".ch");
+        file.deleteOnExit();
+        ch.save(file.getPath());
+        ContractionHierarchy loaded = load(file.getPath());
+        boolean same = true;
+        for (int q = 0; q < queries; q++)
+            same &= loaded.distance(a[q], b[q]) == ch.distance(a[q], b[q]);
+        StdOut.println("saved and reloaded: " + same);
+    }
+}
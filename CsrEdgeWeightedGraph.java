@@ -0,0 +1,529 @@
+/******************************************************************************
+ *  Compilation:  javac CsrEdgeWeightedGraph.java
+ *  Execution:    java CsrEdgeWeightedGraph filename.txt
+ *  Dependencies: Edge.java EdgeWeightedGraph.java In.java FastIn.java
+ *                NumberReader.java StdOut.java
+ *                KruskalMST.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  An edge-weighted undirected graph, implemented using parallel arrays of
+ *  edge endpoints and weights plus a compressed sparse row index of the
+ *  edges incident to each vertex. Parallel edges and self-loops are
+ *  permitted.
+ *
+ *  % java CsrEdgeWeightedGraph krusGraph.txt
+ *  8 16
+ *  0: 0-2 0.26000  0-7 0.16000  0-4 0.38000  0-2 0.26000  6-0 0.58000
+ *  ...
+ *
+ ******************************************************************************/
+
+/**
+ * The {@code CsrEdgeWeightedGraph} class represents an edge-weighted graph of
+ * vertices named 0 through <em>V</em> - 1, where each undirected edge is named
+ * by an integer id between 0 and <em>E</em> - 1 and has a real-valued weight.
+ * It supports the same operations as {@link EdgeWeightedGraph} without
+ * allocating an {@link Edge} object per edge.
+ * <p>
+ * This implementation stores the edges as three parallel arrays
+ * ({@code int[]} endpoints and {@code double[]} weights) that double when
+ * full, and indexes them with a vertex-indexed offsets array into one
+ * {@code int[]} of incident edge ids. The constructors that read or copy a
+ * graph build the index, in time proportional to <em>E</em> + <em>V</em>.
+ * Adding an edge takes constant amortized time and invalidates the index,
+ * which is rebuilt on the next incidence query. Iterating over the edges
+ * incident to a vertex then takes time proportional to the number of such
+ * edges.
+ * <p>
+ * A graph that is not modified may be read by several threads at once. The
+ * rebuild is not synchronized, though, so after adding edges, query the
+ * graph once (for instance with {@link #degree(int)}) before sharing it
+ * between threads.
+ */
+public class CsrEdgeWeightedGraph {
+	private static final String NEWLINE = System.getProperty("line.separator");
+	private static final int INIT_CAPACITY = 2;
+
+	private final int V;
+	private int E;
+	private int[] from;        // from[e] = one endpoint of edge e
+	private int[] to;          // to[e] = the other endpoint of edge e
+	private double[] weight;   // weight[e] = weight of edge e
+
+	private int[] offsets;     // offsets[v] = index in incident of v's first edge
+	private int[] incident;    // concatenated lists of incident edge ids
+	private int indexedE = -1; // number of edges covered by the index
+
+	/**
+	 * Initializes an empty edge-weighted graph with {@code V} vertices and 0
+	 * edges.
+	 *
+	 * @param V
+	 *            the number of vertices
+	 * @throws IllegalArgumentException
+	 *             if {@code V < 0}
+	 */
+	public CsrEdgeWeightedGraph(int V) {
+		this(V, INIT_CAPACITY);
+	}
+
+	/**
+	 * Initializes an empty edge-weighted graph with {@code V} vertices and 0
+	 * edges, with room for {@code capacity} edges before the edge arrays
+	 * need to grow.
+	 *
+	 * @param V
+	 *            the number of vertices
+	 * @param capacity
+	 *            the initial edge capacity
+	 * @throws IllegalArgumentException
+	 *             if {@code V < 0} or {@code capacity < 0}
+	 */
+	public CsrEdgeWeightedGraph(int V, int capacity) {
+		if (V < 0)
+			throw new IllegalArgumentException("Number of vertices must be nonnegative");
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity must be nonnegative");
+		this.V = V;
+		this.E = 0;
+		from = new int[capacity];
+		to = new int[capacity];
+		weight = new double[capacity];
+	}
+
+	/**
+	 * Initializes an edge-weighted graph from an input stream in the same
+	 * format as {@link EdgeWeightedGraph#EdgeWeightedGraph(In)}.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @throws IndexOutOfBoundsException
+	 *             if the endpoints of any edge are not in prescribed range
+	 * @throws IllegalArgumentException
+	 *             if the number of vertices or edges is negative
+	 */
+	public CsrEdgeWeightedGraph(In in) {
+		this(in.readInt(), 0);
+		readEdges(in);
+	}
+
+	/**
+	 * Initializes an edge-weighted graph from a {@link FastIn} input stream,
+	 * in the same format as {@link EdgeWeightedGraph#EdgeWeightedGraph(In)},
+	 * without a string per token.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @throws IndexOutOfBoundsException
+	 *             if the endpoints of any edge are not in prescribed range
+	 * @throws IllegalArgumentException
+	 *             if the number of vertices or edges is negative
+	 */
+	public CsrEdgeWeightedGraph(FastIn in) {
+		this(in.readInt(), 0);
+		readEdges(in);
+	}
+
+	// reads the number of edges and the edges, for both kinds of input stream
+	private void readEdges(NumberReader in) {
+		int E = in.readInt();
+		if (E < 0)
+			throw new IllegalArgumentException("Number of edges must be nonnegative");
+		resize(E);
+		for (int i = 0; i < E; i++) {
+			int v = in.readInt();
+			int w = in.readInt();
+			double weight = in.readDouble();
+			addEdge(v, w, weight);
+		}
+		index();
+	}
+
+	/**
+	 * Initializes an edge-weighted graph with the same vertices and edges as
+	 * {@code G}.
+	 *
+	 * @param G
+	 *            the edge-weighted graph to copy
+	 */
+	public CsrEdgeWeightedGraph(EdgeWeightedGraph G) {
+		this(G.V(), G.E());
+		for (Edge e : G.edges()) {
+			int v = e.either();
+			addEdge(v, e.other(v), e.weight());
+		}
+		index();
+	}
+
+	/**
+	 * Returns the number of vertices in this edge-weighted graph.
+	 *
+	 * @return the number of vertices in this edge-weighted graph
+	 */
+	public int V() {
+		return V;
+	}
+
+	/**
+	 * Returns the number of edges in this edge-weighted graph.
+	 *
+	 * @return the number of edges in this edge-weighted graph
+	 */
+	public int E() {
+		return E;
+	}
+
+	// throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V)
+			throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+	}
+
+	// throw an IndexOutOfBoundsException unless {@code 0 <= e < E}
+	private void validateEdge(int e) {
+		if (e < 0 || e >= E)
+			throw new IndexOutOfBoundsException("edge " + e + " is not between 0 and " + (E - 1));
+	}
+
+	// resize the edge arrays to the given capacity
+	private void resize(int capacity) {
+		int[] f = new int[capacity];
+		int[] t = new int[capacity];
+		double[] w = new double[capacity];
+		System.arraycopy(from, 0, f, 0, E);
+		System.arraycopy(to, 0, t, 0, E);
+		System.arraycopy(weight, 0, w, 0, E);
+		from = f;
+		to = t;
+		weight = w;
+	}
+
+	/**
+	 * Adds the undirected edge {@code v-w} with the given weight to this
+	 * edge-weighted graph.
+	 *
+	 * @param v
+	 *            one endpoint
+	 * @param w
+	 *            the other endpoint
+	 * @param weight
+	 *            the weight of the edge
+	 * @return the id of the new edge
+	 * @throws IndexOutOfBoundsException
+	 *             unless both endpoints are between {@code 0} and {@code V-1}
+	 * @throws IllegalArgumentException
+	 *             if {@code weight} is {@code NaN}
+	 */
+	public int addEdge(int v, int w, double weight) {
+		validateVertex(v);
+		validateVertex(w);
+		if (Double.isNaN(weight))
+			throw new IllegalArgumentException("Weight is NaN");
+		if (E == from.length)
+			resize(Math.max(2 * E, INIT_CAPACITY));
+		from[E] = v;
+		to[E] = w;
+		this.weight[E] = weight;
+		return E++;
+	}
+
+	/**
+	 * Returns either endpoint of edge {@code e}.
+	 *
+	 * @param e
+	 *            the edge id
+	 * @return either endpoint of edge {@code e}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= e < E}
+	 */
+	public int either(int e) {
+		validateEdge(e);
+		return from[e];
+	}
+
+	/**
+	 * Returns the endpoint of edge {@code e} that is different from the
+	 * given vertex.
+	 *
+	 * @param e
+	 *            the edge id
+	 * @param vertex
+	 *            one endpoint of edge {@code e}
+	 * @return the other endpoint of edge {@code e}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= e < E}
+	 * @throws IllegalArgumentException
+	 *             if the vertex is not one of the endpoints of edge {@code e}
+	 */
+	public int other(int e, int vertex) {
+		validateEdge(e);
+		if (vertex == from[e])
+			return to[e];
+		else if (vertex == to[e])
+			return from[e];
+		else
+			throw new IllegalArgumentException("Illegal endpoint");
+	}
+
+	/**
+	 * Returns the weight of edge {@code e}.
+	 *
+	 * @param e
+	 *            the edge id
+	 * @return the weight of edge {@code e}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= e < E}
+	 */
+	public double weight(int e) {
+		validateEdge(e);
+		return weight[e];
+	}
+
+	/**
+	 * Returns edge {@code e} as a newly allocated {@link Edge}.
+	 *
+	 * @param e
+	 *            the edge id
+	 * @return edge {@code e} as an {@code Edge}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= e < E}
+	 */
+	public Edge edge(int e) {
+		validateEdge(e);
+		return new Edge(from[e], to[e], weight[e]);
+	}
+
+	// (re)build the incidence index if edges were added since the last build;
+	// lists are filled newest edge first, matching EdgeWeightedGraph.adj(v)
+	private void index() {
+		if (indexedE == E)
+			return;
+		int[] offsets = new int[V + 1];
+		for (int e = 0; e < E; e++) {
+			offsets[from[e] + 1]++;
+			offsets[to[e] + 1]++;
+		}
+		for (int v = 0; v < V; v++)
+			offsets[v + 1] += offsets[v];
+		int[] incident = new int[2 * E];
+		int[] next = new int[V];
+		System.arraycopy(offsets, 0, next, 0, V);
+		for (int e = E - 1; e >= 0; e--) {
+			incident[next[from[e]]++] = e;
+			incident[next[to[e]]++] = e;
+		}
+		this.offsets = offsets;
+		this.incident = incident;
+		this.indexedE = E;
+	}
+
+	/**
+	 * Returns the index in {@link #edgeAt(int)} of the first edge incident
+	 * on vertex {@code v}.
+	 *
+	 * @param v
+	 *            the vertex
+	 * @return the index of the first edge incident on {@code v}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= v < V}
+	 */
+	public int begin(int v) {
+		validateVertex(v);
+		index();
+		return offsets[v];
+	}
+
+	/**
+	 * Returns one past the index in {@link #edgeAt(int)} of the last edge
+	 * incident on vertex {@code v}. To iterate over the edges incident on
+	 * {@code v}, use
+	 * {@code for (int i = G.begin(v); i < G.end(v); i++) G.edgeAt(i)}.
+	 *
+	 * @param v
+	 *            the vertex
+	 * @return one past the index of the last edge incident on {@code v}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= v < V}
+	 */
+	public int end(int v) {
+		validateVertex(v);
+		index();
+		return offsets[v + 1];
+	}
+
+	/**
+	 * Returns the id of the edge stored at slot {@code i} of the incidence
+	 * index.
+	 *
+	 * @param i
+	 *            the slot
+	 * @return the id of the edge stored at slot {@code i}
+	 */
+	public int edgeAt(int i) {
+		index();
+		return incident[i];
+	}
+
+	/**
+	 * Returns the degree of vertex {@code v}. A self-loop counts twice.
+	 *
+	 * @param v
+	 *            the vertex
+	 * @return the degree of vertex {@code v}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= v < V}
+	 */
+	public int degree(int v) {
+		validateVertex(v);
+		index();
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/**
+	 * Returns the ids of all edges in this edge-weighted graph, in the order
+	 * they were added. Since edge ids are consecutive, a plain
+	 * {@code for (int e = 0; e < G.E(); e++)} loop visits the same edges
+	 * without allocating the array.
+	 *
+	 * @return the ids of all edges in this edge-weighted graph
+	 */
+	public int[] edges() {
+		int[] ids = new int[E];
+		for (int e = 0; e < E; e++)
+			ids[e] = e;
+		return ids;
+	}
+
+	/*
+	 * Package-private views of the edge arrays, shared with this graph, for
+	 * the algorithms that scan every edge. Only the first E() entries are
+	 * meaningful and none of them may be modified.
+	 */
+	int[] fromArray() {
+		return from;
+	}
+
+	int[] toArray() {
+		return to;
+	}
+
+	double[] weightArray() {
+		return weight;
+	}
+
+	int[] offsetsArray() {
+		index();
+		return offsets;
+	}
+
+	int[] incidentArray() {
+		index();
+		return incident;
+	}
+
+	/**
+	 * Sorts {@code ids[lo..hi)} into ascending order of edge weight, in place
+	 * and without boxing.
+	 *
+	 * @param ids
+	 *            an array of edge ids
+	 * @param lo
+	 *            the first index to sort
+	 * @param hi
+	 *            one past the last index to sort
+	 */
+	void sortByWeight(int[] ids, int lo, int hi) {
+		// quicksort with median-of-three pivot, recursing on the smaller side
+		while (hi - lo > 16) {
+			int mid = (lo + hi) >>> 1;
+			if (weight[ids[mid]] < weight[ids[lo]])
+				swap(ids, mid, lo);
+			if (weight[ids[hi - 1]] < weight[ids[lo]])
+				swap(ids, hi - 1, lo);
+			if (weight[ids[hi - 1]] < weight[ids[mid]])
+				swap(ids, hi - 1, mid);
+			double pivot = weight[ids[mid]];
+			int i = lo, j = hi - 1;
+			while (i <= j) {
+				while (weight[ids[i]] < pivot)
+					i++;
+				while (weight[ids[j]] > pivot)
+					j--;
+				if (i <= j)
+					swap(ids, i++, j--);
+			}
+			if (j - lo < hi - i) {
+				sortByWeight(ids, lo, j + 1);
+				lo = i;
+			} else {
+				sortByWeight(ids, i, hi);
+				hi = j + 1;
+			}
+		}
+		// insertion sort for small ranges
+		for (int i = lo + 1; i < hi; i++) {
+			int id = ids[i];
+			double w = weight[id];
+			int j = i - 1;
+			while (j >= lo && weight[ids[j]] > w) {
+				ids[j + 1] = ids[j];
+				j--;
+			}
+			ids[j + 1] = id;
+		}
+	}
+
+	private static void swap(int[] a, int i, int j) {
+		int t = a[i];
+		a[i] = a[j];
+		a[j] = t;
+	}
+
+	/**
+	 * Computes a minimum spanning tree (or forest) of this edge-weighted graph
+	 * using Kruskal's algorithm.
+	 *
+	 * @return a minimum spanning tree (or forest) of this edge-weighted graph
+	 * @see KruskalMST
+	 */
+	public MinimumSpanningTree kruskal() {
+		return KruskalMST.mst(this);
+	}
+
+	/**
+	 * Returns a string representation of the edge-weighted graph. This method
+	 * takes time proportional to <em>E</em> + <em>V</em>.
+	 *
+	 * @return the number of vertices <em>V</em>, followed by the number of
+	 *         edges <em>E</em>, followed by the <em>V</em> adjacency lists of
+	 *         edges
+	 */
+	public String toString() {
+		index();
+		StringBuilder s = new StringBuilder();
+		s.append(V + " " + E + NEWLINE);
+		for (int v = 0; v < V; v++) {
+			s.append(v + ": ");
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int e = incident[i];
+				s.append(String.format("%d-%d %.5f", from[e], to[e], weight[e]) + "  ");
+			}
+			s.append(NEWLINE);
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Unit tests the {@code CsrEdgeWeightedGraph} data type.
+	 *
+	 * @param args
+	 *            the command-line arguments
+	 */
+	public static void main(String[] args) {
+		FastIn in = new FastIn(args[0]);
+		CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+		StdOut.println(G);
+		StdOut.println(G.kruskal());
+	}
+
+}
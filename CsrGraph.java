@@ -0,0 +1,345 @@
+/******************************************************************************
+ *  Compilation:  javac CsrGraph.java
+ *  Execution:    java CsrGraph filename.txt
+ *  Dependencies: Graph.java In.java FastIn.java NumberReader.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
+ *
+ *  An immutable graph in compressed sparse row (CSR) form.
+ *
+ *  % java CsrGraph tinyG.txt
+ *  13 vertices, 13 edges
+ *  0: 6 2 1 5
+ *  1:
+ *  ...
+ *
+ ******************************************************************************/
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code CsrGraph} class represents a frozen graph of vertices named 0
+ *  through <em>V</em> - 1. The adjacency lists of all vertices are packed
+ *  into a single {@code int[]} of targets, and vertex <em>v</em>'s neighbors
+ *  occupy the slots {@code begin(v)} (inclusive) to {@code end(v)}
+ *  (exclusive). Iterating over the vertices adjacent to <em>v</em> is
+ *  therefore a contiguous scan, and the whole graph costs
+ *  4(<em>V</em> + 1) + 4<em>E</em> bytes.
+ *  <p>
+ *  A {@code CsrGraph} is usually obtained from {@link Graph#freeze()}, but
+ *  it can also be read directly from an input stream without building the
+ *  linked adjacency lists first. Neighbors appear in the same order as they
+ *  do in {@link Graph#adj(int)}, so traversals over either representation
+ *  visit vertices in the same order.
+ */
+public class CsrGraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int V;
+    private final int E;
+    private final int[] offsets;   // offsets[v] = index in targets of v's first neighbor
+    private final int[] targets;   // concatenated adjacency lists
+
+    /**
+     * Initializes a CSR graph with the same vertices and adjacency lists as
+     * {@code G}.
+     *
+     * @param  G the graph to freeze
+     */
+    public CsrGraph(Graph G) {
+        this.V = G.V();
+        this.offsets = new int[V + 1];
+        for (int v = 0; v < V; v++)
+            offsets[v + 1] = offsets[v] + G.degree(v);
+        this.E = G.E();
+        this.targets = new int[offsets[V]];
+        for (int v = 0; v < V; v++)
+            G.copyAdj(v, targets, offsets[v]);
+    }
+
+    /**
+     * Initializes a CSR graph from an input stream in the same format as
+     * {@link Graph#Graph(In)}: the number of vertices <em>V</em>, followed
+     * by the number of edges <em>E</em>, followed by <em>E</em> pairs of
+     * vertices, with each entry separated by whitespace.
+     *
+     * @param  in the input stream
+     * @throws IndexOutOfBoundsException if the endpoints of any edge are not
+     *         in prescribed range
+     * @throws IllegalArgumentException if the number of vertices or edges
+     *         is negative
+     */
+    public CsrGraph(In in) {
+        this(in, vertices(in.readInt()), edges(in.readInt()));
+    }
+
+    /**
+     * Initializes a CSR graph from a {@link FastIn} input stream, in the same
+     * format as {@link #CsrGraph(In)}, without a string per token.
+     *
+     * @param  in the input stream
+     * @throws IndexOutOfBoundsException if the endpoints of any edge are not
+     *         in prescribed range
+     * @throws IllegalArgumentException if the number of vertices or edges
+     *         is negative
+     */
+    public CsrGraph(FastIn in) {
+        this(in, vertices(in.readInt()), edges(in.readInt()));
+    }
+
+    // reads the E edges after the counts, for both kinds of input stream
+    private CsrGraph(NumberReader in, int V, int E) {
+        int[] from = new int[E];
+        int[] to = new int[E];
+        for (int i = 0; i < E; i++) {
+            from[i] = in.readInt();
+            to[i] = in.readInt();
+        }
+        this.V = V;
+        this.E = E;
+        this.offsets = new int[V + 1];
+        this.targets = new int[E];
+        fill(from, to, E);
+    }
+
+    private static int vertices(int V) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        return V;
+    }
+
+    private static int edges(int E) {
+        if (E < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
+        return E;
+    }
+
+    /**
+     * Initializes a CSR graph on {@code V} vertices from the first {@code E}
+     * entries of the parallel arrays {@code from} and {@code to}; entry
+     * <em>i</em> is the edge {@code from[i]}-{@code to[i]}. The arrays are
+     * not retained.
+     *
+     * @param  V the number of vertices
+     * @param  from the first endpoint of each edge
+     * @param  to the second endpoint of each edge
+     * @param  E the number of edges
+     * @throws IndexOutOfBoundsException if the endpoints of any edge are not
+     *         in prescribed range
+     * @throws IllegalArgumentException if the number of vertices or edges
+     *         is negative
+     */
+    public CsrGraph(int V, int[] from, int[] to, int E) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        if (E < 0) throw new IllegalArgumentException("Number of edges must be nonnegative");
+        this.V = V;
+        this.E = E;
+        this.offsets = new int[V + 1];
+        this.targets = new int[E];
+        fill(from, to, E);
+    }
+
+    // counting sort of the edges by source vertex; the edges are placed in
+    // reverse input order so that each list matches Graph's iteration order
+    private void fill(int[] from, int[] to, int E) {
+        for (int i = 0; i < E; i++) {
+            validateVertex(from[i]);
+            validateVertex(to[i]);
+            offsets[from[i] + 1]++;
+        }
+        for (int v = 0; v < V; v++)
+            offsets[v + 1] += offsets[v];
+        int[] next = new int[V];
+        System.arraycopy(offsets, 0, next, 0, V);
+        for (int i = E - 1; i >= 0; i--)
+            targets[next[from[i]]++] = to[i];
+    }
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return the number of vertices in this graph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this graph.
+     *
+     * @return the number of edges in this graph
+     */
+    public int E() {
+        return E;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the index in {@link #target(int)} of the first neighbor of
+     * vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the index of the first neighbor of {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int begin(int v) {
+        validateVertex(v);
+        return offsets[v];
+    }
+
+    /**
+     * Returns one past the index in {@link #target(int)} of the last
+     * neighbor of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return one past the index of the last neighbor of {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int end(int v) {
+        validateVertex(v);
+        return offsets[v + 1];
+    }
+
+    /**
+     * Returns the neighbor stored at slot {@code i} of the packed adjacency
+     * array. Use with {@link #begin(int)} and {@link #end(int)}:
+     * {@code for (int i = G.begin(v); i < G.end(v); i++) G.target(i)}.
+     *
+     * @param  i the slot
+     * @return the neighbor stored at slot {@code i}
+     */
+    public int target(int i) {
+        return targets[i];
+    }
+
+    /**
+     * Returns the degree of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Returns the offsets array; vertex <em>v</em>'s neighbors occupy
+     * {@code targets()[offsets()[v]]} through
+     * {@code targets()[offsets()[v + 1] - 1]}. The array is shared with this
+     * graph and must not be modified.
+     *
+     * @return the offsets array, of length <em>V</em> + 1
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the packed adjacency array. The array is shared with this
+     * graph and must not be modified.
+     *
+     * @return the packed adjacency array, of length <em>E</em>
+     */
+    int[] targets() {
+        return targets;
+    }
+
+    /**
+     * Returns the reverse of this graph, in which every edge {@code v->w}
+     * becomes {@code w->v}. For a graph built with undirected edges (each
+     * edge stored in both directions) the reverse has the same edges. Each
+     * call builds a new graph in time proportional to <em>V</em> +
+     * <em>E</em>.
+     *
+     * @return the reverse of this graph
+     */
+    public CsrGraph reverse() {
+        int[] from = new int[E];
+        int[] to = new int[E];
+        // listing the edges newest first makes each reversed list come out
+        // in increasing order of source vertex
+        int k = E;
+        for (int v = 0; v < V; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                k--;
+                from[k] = targets[i];
+                to[k] = v;
+            }
+        }
+        return new CsrGraph(V, from, to, E);
+    }
+
+    /**
+     * Returns the vertices adjacent to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the vertices adjacent to vertex {@code v} as an Iterable
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public Iterable<Integer> adj(int v) {
+        validateVertex(v);
+        final int lo = offsets[v];
+        final int hi = offsets[v + 1];
+        return new Iterable<Integer>() {
+            public Iterator<Integer> iterator() {
+                return new RangeIterator(lo, hi);
+            }
+        };
+    }
+
+    // an iterator over targets[lo..hi), doesn't implement remove()
+    private class RangeIterator implements Iterator<Integer> {
+        private int i;
+        private final int hi;
+
+        public RangeIterator(int lo, int hi) {
+            this.i = lo;
+            this.hi = hi;
+        }
+
+        public boolean hasNext()  { return i < hi;                              }
+        public void remove()      { throw new UnsupportedOperationException();  }
+
+        public Integer next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return targets[i++];
+        }
+    }
+
+    /**
+     * Returns a string representation of this graph. This method takes time
+     * proportional to <em>E</em> + <em>V</em>.
+     *
+     * @return the number of vertices <em>V</em>, followed by the number of
+     *         edges <em>E</em>, followed by the <em>V</em> adjacency lists
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " vertices, " + E + " edges " + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                s.append(targets[i] + " ");
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Unit tests the {@code CsrGraph} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        FastIn in = new FastIn(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        StdOut.println(G);
+        StdOut.println(G.toString().equals(new Graph(new In(args[0])).freeze().toString()));
+    }
+}
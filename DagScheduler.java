@@ -0,0 +1,93 @@
+/******************************************************************************
+ *  Compilation:  javac DagScheduler.java
+ *  Execution:    java DagScheduler filename.txt
+ *  Dependencies: CsrGraph.java TopologicalSort.java ParallelFor.java
+ *                In.java StdOut.java
+ *
+ *  Runs a task per vertex of a DAG, level by level, with all tasks of a
+ *  level in parallel.
+ *
+ *  % java DagScheduler graph3.txt
+ *  4 levels, 7 tasks, every task ran after its predecessors: true
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ *  The {@code DagScheduler} class treats a directed acyclic graph as a set
+ *  of tasks, one per vertex, where an edge {@code v->w} means that task
+ *  <em>w</em> depends on task <em>v</em>. It runs every task after all the
+ *  tasks it depends on.
+ *  <p>
+ *  This implementation runs the levels of a {@link TopologicalSort} one
+ *  after another, and the tasks of a level concurrently on a
+ *  {@link ForkJoinPool}, one task per fork/join piece so that uneven tasks
+ *  are balanced by work stealing. Since a task only depends on tasks of
+ *  lower levels, every dependency has finished, and its writes are visible,
+ *  before the task starts. If a task throws an exception, the remaining
+ *  levels are not run and the exception is rethrown to the caller.
+ */
+public class DagScheduler {
+
+    // this class should not be instantiated
+    private DagScheduler() { }
+
+    /**
+     * Runs {@code task} once for every vertex of the DAG {@code G}, on the
+     * common fork/join pool.
+     *
+     * @param  G the graph
+     * @param  task the task to run for each vertex
+     * @throws IllegalArgumentException if {@code G} has a directed cycle
+     */
+    public static void run(CsrGraph G, IntConsumer task) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        run(new TopologicalSort(G, G.reverse(), pool), task, pool);
+    }
+
+    /**
+     * Runs {@code task} once for every vertex of a DAG whose topological sort
+     * has already been computed, on the given pool.
+     *
+     * @param  topological the topological sort of the graph
+     * @param  task the task to run for each vertex
+     * @param  pool the pool to run on
+     * @throws IllegalArgumentException if the graph has a directed cycle
+     */
+    public static void run(TopologicalSort topological, final IntConsumer task, ForkJoinPool pool) {
+        if (!topological.isDAG()) throw new IllegalArgumentException("Graph has a directed cycle");
+        final int[] order = topological.orderArray();
+        int[] levelStart = topological.levelStartArray();
+        for (int i = 0; i + 1 < levelStart.length; i++) {
+            ParallelFor.run(pool, levelStart[i], levelStart[i + 1], 1, (lo, hi) -> {
+                for (int j = lo; j < hi; j++)
+                    task.accept(order[j]);
+            });
+        }
+    }
+
+    /**
+     * Unit tests the {@code DagScheduler} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        final CsrGraph G = new CsrGraph(in);
+        final CsrGraph R = G.reverse();
+        final int[] finished = new int[G.V()];
+        final AtomicInteger clock = new AtomicInteger();
+        final boolean[] ok = { true };
+        TopologicalSort topological = new TopologicalSort(G, R, ForkJoinPool.commonPool());
+        DagScheduler.run(topological, v -> {
+            for (int u : R.adj(v))
+                if (finished[u] == 0) ok[0] = false;
+            finished[v] = clock.incrementAndGet();
+        }, ForkJoinPool.commonPool());
+        StdOut.println(topological.levels() + " levels, " + clock.get() + " tasks, "
+                + "every task ran after its predecessors: " + ok[0]);
+    }
+}
@@ -0,0 +1,359 @@
+/******************************************************************************
+ *  Compilation:  javac DeltaSteppingSP.java
+ *  Execution:    java DeltaSteppingSP filename.txt s [delta]
+ *  Dependencies: CsrEdgeWeightedGraph.java EdgeWeightedGraph.java
+ *                IntBag.java ParallelFor.java DijkstraSP.java
+ *                ShortestPathWorkspace.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/mediumEWG.txt
+ *
+ *  Parallel single-source shortest paths with delta-stepping, benchmarked
+ *  against Dijkstra's algorithm.
+ *
+ *  % java DeltaSteppingSP krusGraph.txt 0
+ *  delta = 0.14500, 4 buckets
+ *  dijkstra:            0.0 ms
+ *  delta-stepping:      0.5 ms
+ *  same distances: true
+ *
+ ******************************************************************************/
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  The {@code DeltaSteppingSP} class computes the shortest paths from a
+ *  source vertex to every other vertex of an undirected graph with
+ *  nonnegative edge weights, using all the worker threads of a
+ *  {@link ForkJoinPool}.
+ *  <p>
+ *  This implementation uses delta-stepping (Meyer and Sanders, 2003). The
+ *  vertices with tentative distances are kept in buckets of width
+ *  <em>&Delta;</em>, and the buckets are settled in increasing order.
+ *  Settling bucket <em>i</em> relaxes the <em>light</em> edges (weight at
+ *  most <em>&Delta;</em>) of all its vertices in parallel, repeatedly,
+ *  since a light edge may put a vertex back into the same bucket. Once the
+ *  bucket stays empty, the <em>heavy</em> edges of every vertex removed
+ *  from it are relaxed in parallel, once each. Distances are updated with a
+ *  lock-free atomic minimum: they are stored as the bits of nonnegative
+ *  {@code double}s in an {@link AtomicLongArray}, whose order as
+ *  {@code long}s is the order of the values. Each parallel piece collects
+ *  the vertices it improved in its own buffer and files them into the
+ *  buckets once, at the end of the piece.
+ *  <p>
+ *  Every tentative distance lies within the largest edge weight of the
+ *  bucket being settled, so the buckets are kept in a cyclic array of
+ *  about (largest edge weight) / <em>&Delta;</em> + 3 slots, reused as the
+ *  search advances. A <em>&Delta;</em> that would need more than
+ *  2<sup>20</sup> slots is rejected.
+ *  <p>
+ *  A small <em>&Delta;</em> does little wasted work but many sequential
+ *  steps, like Dijkstra's algorithm; a large one gives wide parallel steps
+ *  but may relax an edge many times, like the Bellman-Ford algorithm. The
+ *  default, the largest edge weight divided by the average degree, is a
+ *  common compromise. Only distances are computed; for a shortest path
+ *  tree use {@link DijkstraSP}.
+ */
+public class DeltaSteppingSP {
+    private static final long INFINITY = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+    private static final int MAX_SLOTS = 1 << 20;
+
+    private final double delta;         // bucket width
+    private final double[] distTo;      // distTo[v] = length of shortest s-v path
+    private final AtomicLongArray dist; // bits of the tentative distances, during the search
+    private final IntBag[] buckets;     // buckets[i % length] = vertices filed into bucket i
+    private int filled;                 // number of nonnull entries of buckets
+    private int processed;              // number of nonempty buckets settled
+
+    /**
+     * Computes the shortest paths from {@code s} in {@code G} on the common
+     * fork/join pool, with the default bucket width.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if an edge has negative weight
+     */
+    public DeltaSteppingSP(CsrEdgeWeightedGraph G, int s) {
+        this(G, s, defaultDelta(G), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the shortest paths from {@code s} in {@code G} on the common
+     * fork/join pool, with bucket width {@code delta}.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  delta the bucket width
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if an edge has negative weight, or
+     *         unless {@code delta} is positive, finite, and at least the
+     *         largest edge weight divided by 2<sup>20</sup>
+     */
+    public DeltaSteppingSP(CsrEdgeWeightedGraph G, int s, double delta) {
+        this(G, s, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the shortest paths from {@code s} in {@code G} on the common
+     * fork/join pool, with bucket width {@code delta}. The graph is first
+     * copied into a {@link CsrEdgeWeightedGraph}.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  delta the bucket width
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if an edge has negative weight, or
+     *         unless {@code delta} is positive, finite, and at least the
+     *         largest edge weight divided by 2<sup>20</sup>
+     */
+    public DeltaSteppingSP(EdgeWeightedGraph G, int s, double delta) {
+        this(new CsrEdgeWeightedGraph(G), s, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the shortest paths from {@code s} in {@code G} on the given
+     * pool, with bucket width {@code delta}.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  delta the bucket width
+     * @param  pool the pool to run on
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if an edge has negative weight, or
+     *         unless {@code delta} is positive, finite, and at least the
+     *         largest edge weight divided by 2<sup>20</sup>
+     */
+    public DeltaSteppingSP(CsrEdgeWeightedGraph G, int s, double delta, ForkJoinPool pool) {
+        final int V = G.V();
+        if (s < 0 || s >= V)
+            throw new IndexOutOfBoundsException("vertex " + s + " is not between 0 and " + (V - 1));
+        if (!(delta > 0) || Double.isInfinite(delta))
+            throw new IllegalArgumentException("Bucket width must be positive and finite");
+        final double[] weight = G.weightArray();
+        double max = 0.0;
+        for (int e = 0; e < G.E(); e++) {
+            if (weight[e] < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+            max = Math.max(max, weight[e]);
+        }
+        // a vertex is filed at most max / delta + 2 buckets past the one
+        // being settled, with one more for rounding
+        if (max / delta + 3 > MAX_SLOTS)
+            throw new IllegalArgumentException("Bucket width " + delta + " too small for edge weights up to " + max);
+        final int[] offsets = G.offsetsArray();
+        final int[] incident = G.incidentArray();
+        final int[] from = G.fromArray();
+        final int[] to = G.toArray();
+
+        this.delta = delta;
+        this.buckets = new IntBag[(int) (max / delta) + 3];
+        this.dist = new AtomicLongArray(V);
+        for (int v = 0; v < V; v++)
+            dist.lazySet(v, INFINITY);
+        dist.set(s, Double.doubleToRawLongBits(0.0));
+        file(0, s);
+
+        final int[] inFrontier = new int[V];   // inFrontier[v] == step iff v is on the current frontier
+        final int[] removed = new int[V];      // removed[v] == phase iff v was removed from the current bucket
+        int step = 0;
+        int phase = 0;
+        final int[] frontier = new int[V];
+        final int[] settled = new int[V];
+        for (long i = 0; filled > 0; i++) {
+            final int slot = (int) (i % buckets.length);
+            if (buckets[slot] == null) continue;
+            final long bucket = i;
+            phase++;
+            int m = 0;   // number of vertices removed from this bucket
+
+            // relax light edges until the bucket stays empty
+            while (buckets[slot] != null) {
+                IntBag entries = buckets[slot];
+                buckets[slot] = null;
+                filled--;
+                final int round = ++step;
+                int n = 0;
+                for (PrimitiveIterator.OfInt it = entries.iterator(); it.hasNext(); ) {
+                    int v = it.nextInt();
+                    if (bucketOf(v) != bucket || inFrontier[v] == round) continue;
+                    inFrontier[v] = round;
+                    frontier[n++] = v;
+                    if (removed[v] != phase) {
+                        removed[v] = phase;
+                        settled[m++] = v;
+                    }
+                }
+                ParallelFor.run(pool, 0, n, ParallelFor.grain(pool, n, 64), (lo, hi) -> {
+                    IntBag improved = new IntBag();
+                    for (int j = lo; j < hi; j++)
+                        relax(frontier[j], true, offsets, incident, from, to, weight, improved);
+                    fileAll(improved);
+                });
+            }
+
+            // then relax the heavy edges of every vertex removed from it, once
+            ParallelFor.run(pool, 0, m, ParallelFor.grain(pool, m, 64), (lo, hi) -> {
+                IntBag improved = new IntBag();
+                for (int j = lo; j < hi; j++)
+                    relax(settled[j], false, offsets, incident, from, to, weight, improved);
+                fileAll(improved);
+            });
+            if (m > 0) processed++;
+        }
+
+        distTo = new double[V];
+        for (int v = 0; v < V; v++)
+            distTo[v] = Double.longBitsToDouble(dist.get(v));
+    }
+
+    // the largest edge weight divided by the average degree, or 1.0 if
+    // that is not positive; shared with LandmarkAStar
+    static double defaultDelta(CsrEdgeWeightedGraph G) {
+        double[] weight = G.weightArray();
+        double max = 0.0;
+        for (int e = 0; e < G.E(); e++)
+            max = Math.max(max, weight[e]);
+        if (max <= 0.0 || G.V() == 0) return 1.0;
+        return max * G.V() / (2.0 * G.E());
+    }
+
+    // the bucket of v's current tentative distance
+    private long bucketOf(int v) {
+        return bucket(Double.longBitsToDouble(dist.get(v)));
+    }
+
+    private long bucket(double d) {
+        double b = Math.floor(d / delta);
+        if (b >= Long.MAX_VALUE) throw new IllegalStateException("Bucket width too small for the distances");
+        return (long) b;
+    }
+
+    // relaxes the light (or heavy) edges out of v, collecting the improved
+    // vertices in improved
+    private void relax(int v, boolean light, int[] offsets, int[] incident, int[] from,
+                       int[] to, double[] weight, IntBag improved) {
+        double dv = Double.longBitsToDouble(dist.get(v));
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            int e = incident[i];
+            if ((weight[e] <= delta) != light) continue;
+            int w = from[e] == v ? to[e] : from[e];
+            long d = Double.doubleToRawLongBits(dv + weight[e]);
+            long current;
+            while (d < (current = dist.get(w))) {
+                if (dist.compareAndSet(w, current, d)) {
+                    improved.add(w);
+                    break;
+                }
+            }
+        }
+    }
+
+    // files the improved vertices into the buckets of their new distances
+    private synchronized void fileAll(IntBag improved) {
+        for (PrimitiveIterator.OfInt it = improved.iterator(); it.hasNext(); ) {
+            int w = it.nextInt();
+            file(bucketOf(w), w);
+        }
+    }
+
+    private void file(long bucket, int v) {
+        int slot = (int) (bucket % buckets.length);
+        if (buckets[slot] == null) {
+            buckets[slot] = new IntBag();
+            filled++;
+        }
+        buckets[slot].add(v);
+    }
+
+    /**
+     * Returns the bucket width used by the search.
+     *
+     * @return the bucket width
+     */
+    public double delta() {
+        return delta;
+    }
+
+    /**
+     * Returns the number of nonempty buckets that were settled, each of
+     * which is a sequential step of the search.
+     *
+     * @return the number of buckets settled
+     */
+    public int buckets() {
+        return processed;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Is there a path from the source vertex {@code s} to vertex {@code v}?
+     *
+     * @param  v the vertex
+     * @return {@code true} if there is a path from {@code s} to {@code v};
+     *         {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the length of a shortest path from the source vertex {@code s}
+     * to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the length of a shortest path from {@code s} to {@code v}, or
+     *         {@code Double.POSITIVE_INFINITY} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Unit tests the {@code DeltaSteppingSP} data type, comparing it with
+     * {@link DijkstraSP} on the same graph.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+        int s = Integer.parseInt(args[1]);
+        int V = G.V();
+
+        // warm up both searches before timing them
+        ShortestPathWorkspace ws = new ShortestPathWorkspace(V);
+        DeltaSteppingSP sp = null;
+        for (int k = 0; k < 3; k++) {
+            DijkstraSP.search(G, s, ws);
+            sp = args.length > 2 ? new DeltaSteppingSP(G, s, Double.parseDouble(args[2]))
+                                 : new DeltaSteppingSP(G, s);
+        }
+        long start = System.nanoTime();
+        DijkstraSP.search(G, s, ws);
+        long dijkstra = System.nanoTime() - start;
+        start = System.nanoTime();
+        sp = args.length > 2 ? new DeltaSteppingSP(G, s, Double.parseDouble(args[2]))
+                             : new DeltaSteppingSP(G, s);
+        long deltaStepping = System.nanoTime() - start;
+
+        boolean same = true;
+        for (int v = 0; v < V; v++) {
+            double a = ws.distTo(v), b = sp.distTo(v);
+            same &= a == b || Math.abs(a - b) <= 1e-9 * Math.max(1.0, Math.abs(a));
+        }
+        StdOut.printf("delta = %.5f, %d buckets%n", sp.delta(), sp.buckets());
+        StdOut.printf("dijkstra:       %8.1f ms%n", dijkstra / 1e6);
+        StdOut.printf("delta-stepping: %8.1f ms%n", deltaStepping / 1e6);
+        StdOut.println("same distances: " + same);
+    }
+}
@@ -0,0 +1,210 @@
+/******************************************************************************
+ *  Compilation:  javac DepthFirstSearch.java
+ *  Execution:    java DepthFirstSearch filename.txt
+ *  Dependencies: CsrGraph.java TraversalWorkspace.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
+ *
+ *  Iterative depth-first search with visitor callbacks.
+ *
+ *  % java DepthFirstSearch tinyG.txt
+ *  preorder:  0 6 4 3 2 1 5 7 8 9 11 12 10
+ *  postorder: 3 4 6 2 1 5 0 8 7 12 11 10 9
+ *  3 trees, 0 back edges
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code DepthFirstSearch} class runs depth-first searches over a
+ *  {@link CsrGraph} and reports what it finds to a {@link Visitor}: the root
+ *  of each search tree, each vertex in preorder and in postorder, and each
+ *  edge that leads back to a vertex on the current search path.
+ *  <p>
+ *  The search is iterative. The current path is kept on an explicit
+ *  {@code int[]} stack together with, for each vertex on it, the position of
+ *  the next adjacency slot to examine, so the depth of the search is limited
+ *  only by memory and not by the thread stack. Vertices are colored white
+ *  (unvisited), gray (on the current path) or black (finished) with the
+ *  epoch stamps of a {@link TraversalWorkspace}. Neighbors are examined in
+ *  {@link CsrGraph#adj(int)} order, so the visit order matches the
+ *  textbook recursive search.
+ *  <p>
+ *  An instance keeps its colors between calls, so that several calls to
+ *  {@link #search(int, Visitor)} together explore a forest; call
+ *  {@link #reset()} to start over, which takes constant time. Each search
+ *  takes time proportional to the number of vertices and edges it reaches.
+ *  The graph is only read, so several instances, each with its own
+ *  workspace, can search the same graph concurrently.
+ */
+public class DepthFirstSearch {
+    /**
+     * Receives the events of a depth-first search. All methods do nothing by
+     * default.
+     */
+    public interface Visitor {
+        /** Called when a new search tree is started at {@code s}. */
+        default void root(int s) { }
+
+        /** Called when {@code v} is first reached. */
+        default void preorder(int v) { }
+
+        /** Called when every vertex reachable from {@code v} is finished. */
+        default void postorder(int v) { }
+
+        /** Called for an edge {@code v->w} where {@code w} is on the current path. */
+        default void backEdge(int v, int w) { }
+    }
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final TraversalWorkspace ws;
+
+    /**
+     * Initializes a depth-first search engine for the graph {@code G}, with
+     * every vertex unvisited, in a workspace of its own.
+     *
+     * @param  G the graph
+     */
+    public DepthFirstSearch(CsrGraph G) {
+        this(G, new TraversalWorkspace(G.V()));
+    }
+
+    /**
+     * Initializes a depth-first search engine for the graph {@code G} that
+     * keeps its state in the workspace {@code ws}, and resets the workspace.
+     * The parent of each vertex in the search forest is recorded in the
+     * workspace.
+     *
+     * @param  G the graph
+     * @param  ws the workspace
+     * @throws IllegalArgumentException if {@code ws} is sized for a different
+     *         number of vertices
+     */
+    public DepthFirstSearch(CsrGraph G, TraversalWorkspace ws) {
+        if (ws.V() != G.V())
+            throw new IllegalArgumentException("Workspace is sized for " + ws.V() + " vertices, not " + G.V());
+        this.offsets = G.offsets();
+        this.targets = G.targets();
+        this.ws = ws;
+        ws.reset();
+    }
+
+    /**
+     * Marks every vertex unvisited again, in constant time.
+     */
+    public void reset() {
+        ws.reset();
+    }
+
+    /**
+     * Has vertex {@code v} been reached by a search since the last reset?
+     *
+     * @param  v the vertex
+     * @return {@code true} if {@code v} has been visited
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public boolean visited(int v) {
+        validateVertex(v);
+        return ws.seen[v] == ws.epoch();
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = ws.V();
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Searches from every unvisited vertex in increasing order, so that every
+     * vertex of the graph is visited exactly once. Takes time proportional to
+     * <em>V</em> + <em>E</em>.
+     *
+     * @param  visitor the visitor to notify
+     * @return the number of search trees started
+     */
+    public int searchAll(Visitor visitor) {
+        int trees = 0;
+        int[] seen = ws.seen;
+        int epoch = ws.epoch();
+        for (int s = 0; s < seen.length; s++) {
+            if (seen[s] != epoch) {
+                search(s, visitor);
+                trees++;
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Searches from vertex {@code s}, visiting every unvisited vertex
+     * reachable from it. Does nothing if {@code s} has already been visited.
+     *
+     * @param  s the source vertex
+     * @param  visitor the visitor to notify
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     */
+    public void search(int s, Visitor visitor) {
+        validateVertex(s);
+        int[] seen = ws.seen;        // seen[v] == epoch: gray or black
+        int[] done = ws.done;        // done[v] == epoch: black
+        int[] parent = ws.parent;
+        int[] stack = ws.queue;      // vertices on the current path
+        int[] cursor = ws.cursor;    // cursor[k] = next slot of stack[k] to examine
+        int epoch = ws.epoch();
+        if (seen[s] == epoch) return;
+        visitor.root(s);
+        int top = 0;
+        stack[0] = s;
+        cursor[0] = offsets[s];
+        seen[s] = epoch;
+        parent[s] = s;
+        visitor.preorder(s);
+        while (top >= 0) {
+            int v = stack[top];
+            int i = cursor[top];
+            int end = offsets[v + 1];
+            // skip to the next white neighbor, reporting back edges
+            while (i < end && seen[targets[i]] == epoch) {
+                if (done[targets[i]] != epoch)
+                    visitor.backEdge(v, targets[i]);
+                i++;
+            }
+            if (i < end) {
+                int w = targets[i];
+                cursor[top] = i + 1;
+                seen[w] = epoch;
+                parent[w] = v;
+                visitor.preorder(w);
+                top++;
+                stack[top] = w;
+                cursor[top] = offsets[w];
+            }
+            else {
+                done[v] = epoch;
+                visitor.postorder(v);
+                top--;
+            }
+        }
+    }
+
+    /**
+     * Unit tests the {@code DepthFirstSearch} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        final StringBuilder pre = new StringBuilder();
+        final StringBuilder post = new StringBuilder();
+        final int[] backEdges = new int[1];
+        int trees = new DepthFirstSearch(G).searchAll(new Visitor() {
+            public void preorder(int v)  { pre.append(" " + v);  }
+            public void postorder(int v) { post.append(" " + v); }
+            public void backEdge(int v, int w) { backEdges[0]++; }
+        });
+        StdOut.println("preorder: " + pre);
+        StdOut.println("postorder:" + post);
+        StdOut.println(trees + " trees, " + backEdges[0] + " back edges");
+    }
+}
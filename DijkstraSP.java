@@ -0,0 +1,252 @@
+/******************************************************************************
+ *  Compilation:  javac DijkstraSP.java
+ *  Execution:    java DijkstraSP filename.txt s
+ *  Dependencies: EdgeWeightedGraph.java CsrEdgeWeightedGraph.java Edge.java
+ *                ShortestPathWorkspace.java IndexDaryMinPQ.java
+ *                In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  Dijkstra's algorithm into a reusable workspace. Computes the shortest
+ *  path tree of an undirected graph with nonnegative edge weights.
+ *
+ *  % java DijkstraSP krusGraph.txt 0
+ *  0 to 0 (0.00):  0
+ *  0 to 1 (0.35):  0-7-1
+ *  0 to 2 (0.26):  0-2
+ *  0 to 3 (0.43):  0-2-3
+ *  0 to 4 (0.38):  0-4
+ *  0 to 5 (0.67):  0-7-1-5
+ *  0 to 6 (0.58):  0-6
+ *  0 to 7 (0.16):  0-7
+ *  1000 point-to-point queries agree with full searches: true
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code DijkstraSP} class runs single-source and point-to-point
+ *  shortest-path searches over an undirected graph with nonnegative edge
+ *  weights, writing distances and parents into a caller-supplied
+ *  {@link ShortestPathWorkspace}.
+ *  <p>
+ *  This implementation uses Dijkstra's algorithm with the
+ *  {@link IndexDaryMinPQ} of the workspace, whose keys are primitive
+ *  {@code double}s that are lowered in place. Relaxing an edge allocates
+ *  nothing, and since the workspace is reset in constant time a query costs
+ *  time proportional only to the part of the graph it settles, times the
+ *  logarithm of the queue size. A point-to-point query stops as soon as its
+ *  target is settled. Over a {@link CsrEdgeWeightedGraph} a query allocates
+ *  nothing at all; over an {@link EdgeWeightedGraph} it allocates one
+ *  iterator per settled vertex.
+ */
+public class DijkstraSP {
+
+    // this class should not be instantiated
+    private DijkstraSP() { }
+
+    /**
+     * Resets {@code ws} and computes a shortest path tree from {@code s} in
+     * {@code G}; the results are read with
+     * {@link ShortestPathWorkspace#distTo(int)},
+     * {@link ShortestPathWorkspace#parent(int)} and
+     * {@link ShortestPathWorkspace#pathTo(int)}.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  ws the workspace to search in
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if {@code ws} is sized for a different
+     *         number of vertices, or if a reached edge has negative weight
+     */
+    public static void search(CsrEdgeWeightedGraph G, int s, ShortestPathWorkspace ws) {
+        run(G, s, -1, ws);
+    }
+
+    /**
+     * Resets {@code ws} and returns the length of a shortest path from
+     * {@code s} to {@code t} in {@code G}, stopping as soon as {@code t} is
+     * settled; the path is read with {@link ShortestPathWorkspace#pathTo(int)}.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @param  ws the workspace to search in
+     * @return the length of a shortest path from {@code s} to {@code t}, or
+     *         {@code Double.POSITIVE_INFINITY} if there is none
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code ws} is sized for a different
+     *         number of vertices, or if a reached edge has negative weight
+     */
+    public static double distance(CsrEdgeWeightedGraph G, int s, int t, ShortestPathWorkspace ws) {
+        if (t < 0 || t >= G.V())
+            throw new IndexOutOfBoundsException("vertex " + t + " is not between 0 and " + (G.V() - 1));
+        run(G, s, t, ws);
+        return ws.distTo(t);
+    }
+
+    /**
+     * Resets {@code ws} and computes a shortest path tree from {@code s} in
+     * {@code G}.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  ws the workspace to search in
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if {@code ws} is sized for a different
+     *         number of vertices, or if a reached edge has negative weight
+     */
+    public static void search(EdgeWeightedGraph G, int s, ShortestPathWorkspace ws) {
+        run(G, s, -1, ws);
+    }
+
+    /**
+     * Resets {@code ws} and returns the length of a shortest path from
+     * {@code s} to {@code t} in {@code G}, stopping as soon as {@code t} is
+     * settled.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @param  ws the workspace to search in
+     * @return the length of a shortest path from {@code s} to {@code t}, or
+     *         {@code Double.POSITIVE_INFINITY} if there is none
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code ws} is sized for a different
+     *         number of vertices, or if a reached edge has negative weight
+     */
+    public static double distance(EdgeWeightedGraph G, int s, int t, ShortestPathWorkspace ws) {
+        if (t < 0 || t >= G.V())
+            throw new IndexOutOfBoundsException("vertex " + t + " is not between 0 and " + (G.V() - 1));
+        run(G, s, t, ws);
+        return ws.distTo(t);
+    }
+
+    // resets ws and puts s on its queue; shared with BidirectionalDijkstra
+    static void start(int V, int s, ShortestPathWorkspace ws) {
+        if (ws.V() != V) throw new IllegalArgumentException("Workspace is sized for " + ws.V() + " vertices, not " + V);
+        if (s < 0 || s >= V)
+            throw new IndexOutOfBoundsException("vertex " + s + " is not between 0 and " + (V - 1));
+        ws.reset();
+        ws.seen[s] = ws.epoch();
+        ws.dist[s] = 0.0;
+        ws.parent[s] = s;
+        ws.pq.insert(s, 0.0);
+    }
+
+    // Dijkstra's algorithm from s, stopping early when t is settled
+    private static void run(CsrEdgeWeightedGraph G, int s, int t, ShortestPathWorkspace ws) {
+        run(G.offsetsArray(), G.incidentArray(), G.fromArray(), G.toArray(), G.weightArray(), s, t, ws);
+    }
+
+    // the same, over the arrays of a CsrEdgeWeightedGraph; shared with
+    // AllPairsShortestPaths, which fetches them once before searching from
+    // many threads
+    static void run(int[] offsets, int[] incident, int[] from, int[] to, double[] weight,
+                    int s, int t, ShortestPathWorkspace ws) {
+        start(offsets.length - 1, s, ws);
+        int[] seen = ws.seen;
+        int[] done = ws.done;
+        double[] dist = ws.dist;
+        int[] parent = ws.parent;
+        IndexDaryMinPQ pq = ws.pq;
+        int epoch = ws.epoch();
+
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            done[v] = epoch;
+            if (v == t) return;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int e = incident[i];
+                int w = from[e] == v ? to[e] : from[e];
+                if (done[w] == epoch) continue;
+                if (weight[e] < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+                double d = dist[v] + weight[e];
+                if (seen[w] != epoch) {
+                    seen[w] = epoch;
+                    dist[w] = d;
+                    parent[w] = v;
+                    pq.insert(w, d);
+                }
+                else if (d < dist[w]) {
+                    dist[w] = d;
+                    parent[w] = v;
+                    pq.decreaseKey(w, d);
+                }
+            }
+        }
+    }
+
+    // Dijkstra's algorithm from s, stopping early when t is settled
+    private static void run(EdgeWeightedGraph G, int s, int t, ShortestPathWorkspace ws) {
+        start(G.V(), s, ws);
+        int[] seen = ws.seen;
+        int[] done = ws.done;
+        double[] dist = ws.dist;
+        int[] parent = ws.parent;
+        IndexDaryMinPQ pq = ws.pq;
+        int epoch = ws.epoch();
+
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            done[v] = epoch;
+            if (v == t) return;
+            for (Edge e : G.adj(v)) {
+                int w = e.other(v);
+                if (done[w] == epoch) continue;
+                if (e.weight() < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+                double d = dist[v] + e.weight();
+                if (seen[w] != epoch) {
+                    seen[w] = epoch;
+                    dist[w] = d;
+                    parent[w] = v;
+                    pq.insert(w, d);
+                }
+                else if (d < dist[w]) {
+                    dist[w] = d;
+                    parent[w] = v;
+                    pq.decreaseKey(w, d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unit tests the {@code DijkstraSP} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+        int s = Integer.parseInt(args[1]);
+        int V = G.V();
+
+        ShortestPathWorkspace ws = new ShortestPathWorkspace(V);
+        search(G, s, ws);
+        for (int v = 0; v < V; v++) {
+            if (ws.hasPathTo(v)) {
+                StdOut.printf("%d to %d (%.2f):  ", s, v, ws.distTo(v));
+                int[] path = ws.pathTo(v);
+                for (int i = 0; i < path.length; i++) {
+                    if (i == 0) StdOut.print(path[i]);
+                    else        StdOut.print("-" + path[i]);
+                }
+                StdOut.println();
+            }
+            else {
+                StdOut.printf("%d to %d (-):  not connected%n", s, v);
+            }
+        }
+
+        // early-exit queries against full searches, reusing two workspaces
+        int queries = 1000;
+        boolean agree = true;
+        ShortestPathWorkspace full = new ShortestPathWorkspace(V);
+        for (int q = 0; q < queries; q++) {
+            int a = q % V;
+            int b = (a * 7 + q) % V;
+            search(G, a, full);
+            agree &= distance(G, a, b, ws) == full.distTo(b);
+        }
+        StdOut.println(queries + " point-to-point queries agree with full searches: " + agree);
+    }
+}
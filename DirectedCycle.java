@@ -0,0 +1,148 @@
+/******************************************************************************
+ *  Compilation:  javac DirectedCycle.java
+ *  Execution:    java DirectedCycle filename.txt
+ *  Dependencies: CsrGraph.java TopologicalSort.java In.java StdOut.java
+ *
+ *  Finds a directed cycle in a digraph, or a topological order if there is
+ *  none, by parallel in-degree peeling.
+ *
+ *  % java DirectedCycle graph1.txt
+ *  Directed cycle: 0 1 3 0
+ *
+ *  % java DirectedCycle graph3.txt
+ *  Topological order: 0 5 6 1 3 2 4
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  The {@code DirectedCycle} class determines whether a graph, read with
+ *  its edges directed, has a directed cycle, and if so returns one as a
+ *  sequence of vertices. If it has none, a topological order of its
+ *  vertices is returned instead.
+ *  <p>
+ *  This implementation peels the graph with the parallel version of Kahn's
+ *  algorithm in {@link TopologicalSort}, which removes a whole frontier of
+ *  in-degree-zero vertices per round on a {@link ForkJoinPool}. If every
+ *  vertex is peeled, the peeling order is a topological order. If some
+ *  vertices are never peeled, they form a core in which
+ *  every vertex has an unpeeled predecessor; following unpeeled
+ *  predecessors from any core vertex must revisit a vertex, and the walk
+ *  between the two visits is the cycle. Only this walk is sequential, and
+ *  it touches only the core. The running time is proportional to
+ *  <em>V</em> + <em>E</em>, divided across the pool when the frontiers are
+ *  large.
+ */
+public class DirectedCycle {
+    private int[] cycle;   // directed cycle, first vertex repeated at the end (or null)
+    private int[] order;   // topological order (or null)
+
+    /**
+     * Determines whether the graph {@code G} has a directed cycle on the
+     * common fork/join pool.
+     *
+     * @param  G the graph
+     */
+    public DirectedCycle(CsrGraph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Determines whether the graph {@code G} has a directed cycle on the
+     * given pool.
+     *
+     * @param  G the graph
+     * @param  pool the pool to run on
+     */
+    public DirectedCycle(CsrGraph G, ForkJoinPool pool) {
+        int V = G.V();
+        CsrGraph R = G.reverse();
+        int[] rOffsets = R.offsets();
+        int[] rTargets = R.targets();
+        TopologicalSort topological = new TopologicalSort(G, R, pool);
+        if (topological.isDAG()) {
+            order = topological.orderArray();
+            return;
+        }
+
+        // walk unpeeled predecessors from a core vertex until one repeats
+        int[] step = new int[V];           // step[v] = 1 + position of v on the walk
+        int[] walk = new int[V + 1];
+        int v = 0;
+        while (topological.level(v) != -1)
+            v++;
+        int k = 0;
+        while (step[v] == 0) {
+            step[v] = ++k;
+            walk[k - 1] = v;
+            int u = -1;
+            for (int i = rOffsets[v]; i < rOffsets[v + 1]; i++) {
+                if (topological.level(rTargets[i]) == -1) {
+                    u = rTargets[i];
+                    break;
+                }
+            }
+            v = u;
+        }
+        // walk[step[v]-1 .. k-1] is the cycle, traversed against the edges
+        int length = k - (step[v] - 1);
+        cycle = new int[length + 1];
+        cycle[0] = v;
+        for (int i = 1; i < length; i++)
+            cycle[i] = walk[k - i];
+        cycle[length] = v;
+    }
+
+    /**
+     * Does the graph have a directed cycle?
+     *
+     * @return {@code true} if the graph has a directed cycle, {@code false} otherwise
+     */
+    public boolean hasCycle() {
+        return cycle != null;
+    }
+
+    /**
+     * Returns a directed cycle if the graph has one, and {@code null} otherwise.
+     *
+     * @return a directed cycle as a sequence of vertices whose first and last
+     *         entries are the same vertex, or {@code null} if the graph is acyclic
+     */
+    public int[] cycle() {
+        return cycle == null ? null : cycle.clone();
+    }
+
+    /**
+     * Returns a topological order if the graph is acyclic, and {@code null} otherwise.
+     *
+     * @return the vertices in an order in which every edge points forward,
+     *         or {@code null} if the graph has a directed cycle
+     */
+    public int[] order() {
+        return order == null ? null : order.clone();
+    }
+
+    /**
+     * Unit tests the {@code DirectedCycle} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        DirectedCycle finder = new DirectedCycle(G);
+        StringBuilder s = new StringBuilder();
+        if (finder.hasCycle()) {
+            s.append("Directed cycle:");
+            for (int v : finder.cycle())
+                s.append(" " + v);
+        }
+        else {
+            s.append("Topological order:");
+            for (int v : finder.order())
+                s.append(" " + v);
+        }
+        StdOut.println(s);
+    }
+}
@@ -0,0 +1,371 @@
+/******************************************************************************
+ *  Compilation:  javac DirectionOptimizingBFS.java
+ *  Execution:    java DirectionOptimizingBFS filename.txt s
+ *  Dependencies: CsrGraph.java IntBag.java ParallelFor.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
+ *
+ *  Parallel breadth-first search that switches between top-down and
+ *  bottom-up steps.
+ *
+ *  % java DirectionOptimizingBFS tinyG.txt 0
+ *  step 0: bottom-up    40211 ns
+ *  step 1: bottom-up    16126 ns
+ *  step 2: bottom-up    11022 ns
+ *  0 to 0 (0):  0
+ *  0 to 1 (1):  0-1
+ *  0 to 2 (1):  0-2
+ *  0 to 3 (2):  0-5-3
+ *  ...
+ *  0 to 7 (-):  not connected
+ *  ...
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  The {@code DirectionOptimizingBFS} class computes the number of edges on
+ *  a shortest path, and a breadth-first search tree, from a source vertex
+ *  to every other vertex of a {@link CsrGraph}, using the worker threads of
+ *  a {@link ForkJoinPool}.
+ *  <p>
+ *  This implementation follows Beamer, Asanovi&#263; and Patterson (2012).
+ *  While the frontier is small, a <em>top-down</em> step scans the edges
+ *  leaving the frontier in parallel and claims each undiscovered vertex with
+ *  a compare-and-set on its parent. Once the edges leaving the frontier
+ *  outnumber the edges still to be checked by a factor of 1/{@code ALPHA},
+ *  a <em>bottom-up</em> step instead has every undiscovered vertex scan its
+ *  incoming edges for a parent in the frontier, which is kept as a bitmap,
+ *  stopping at the first one found. The search returns to top-down steps
+ *  when the frontier shrinks below <em>V</em>/{@code BETA} vertices.
+ *  <p>
+ *  Edges are followed in their stored direction only. The bottom-up steps
+ *  read incoming edges from the reverse graph, so a graph built with
+ *  directed edges is searched correctly; pass the reverse to the
+ *  constructor to reuse it across queries. Each step is timed, and the
+ *  timings and step directions are available afterwards.
+ */
+public class DirectionOptimizingBFS {
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private final int s;
+    private final int[] distTo;     // distTo[v] = number of edges on shortest s->v path
+    private final int[] edgeTo;     // edgeTo[v] = previous vertex on shortest s->v path
+    private int steps;              // number of search steps run
+    private long[] stepNanos = new long[8];
+    private boolean[] stepBottomUp = new boolean[8];
+
+    /**
+     * Computes the shortest paths from {@code s} in the graph {@code G} on
+     * the common fork/join pool. The reverse of {@code G} is built first.
+     *
+     * @param  G the graph
+     * @param  s the source vertex
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     */
+    public DirectionOptimizingBFS(CsrGraph G, int s) {
+        this(G, G.reverse(), s, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the shortest paths from {@code s} in the graph {@code G},
+     * whose reverse {@code R} has already been built, on the given pool.
+     *
+     * @param  G the graph
+     * @param  R the reverse of {@code G}, as returned by {@link CsrGraph#reverse()}
+     * @param  s the source vertex
+     * @param  pool the pool to run on
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if {@code G} and {@code R} do not
+     *         have the same number of vertices
+     */
+    public DirectionOptimizingBFS(CsrGraph G, CsrGraph R, int s, ForkJoinPool pool) {
+        final int V = G.V();
+        if (R.V() != V) throw new IllegalArgumentException("Reverse graph has a different number of vertices");
+        if (s < 0 || s >= V)
+            throw new IndexOutOfBoundsException("vertex " + s + " is not between 0 and " + (V - 1));
+        this.s = s;
+        final int[] offsets = G.offsets();
+        final int[] targets = G.targets();
+        final int[] rOffsets = R.offsets();
+        final int[] rTargets = R.targets();
+
+        distTo = new int[V];
+        Arrays.fill(distTo, INFINITY);
+        final AtomicIntegerArray parent = new AtomicIntegerArray(V);
+        for (int v = 0; v < V; v++)
+            parent.lazySet(v, -1);
+
+        final int words = (V + 63) >>> 6;
+        long[] frontierBits = new long[words];
+        long[] nextBits = new long[words];
+        int[] queue = new int[V];
+        int[] nextQueue = new int[V];
+        int queueSize = 1;
+        queue[0] = s;
+        distTo[s] = 0;
+        parent.set(s, s);
+
+        long unexplored = G.E() - R.degree(s);   // incoming edges of undiscovered vertices
+        boolean bottomUp = false;
+        boolean queueValid = true;               // is the frontier in queue or in frontierBits?
+        int frontierSize = 1;
+        long frontierEdges = offsets[s + 1] - offsets[s];
+
+        for (int level = 0; frontierSize > 0; level++) {
+            long start = System.nanoTime();
+            // choose the direction of this step
+            if (!bottomUp && frontierEdges > unexplored / ALPHA)
+                bottomUp = true;
+            else if (bottomUp && frontierSize < V / BETA)
+                bottomUp = false;
+
+            final int depth = level + 1;
+            final AtomicInteger found = new AtomicInteger();
+            final AtomicLong foundOut = new AtomicLong();
+            final AtomicLong foundIn = new AtomicLong();
+            if (bottomUp) {
+                if (queueValid) {
+                    Arrays.fill(frontierBits, 0L);
+                    for (int i = 0; i < queueSize; i++)
+                        frontierBits[queue[i] >>> 6] |= 1L << queue[i];
+                }
+                final long[] bits = frontierBits;
+                final long[] next = nextBits;
+                // each piece owns whole words of the next bitmap
+                ParallelFor.run(pool, 0, words, ParallelFor.grain(pool, words, 16), (lo, hi) -> {
+                    int k = 0;
+                    long out = 0, in = 0;
+                    for (int wd = lo; wd < hi; wd++) {
+                        long word = 0L;
+                        int end = Math.min(V, (wd + 1) << 6);
+                        for (int v = wd << 6; v < end; v++) {
+                            if (parent.get(v) != -1) continue;
+                            for (int i = rOffsets[v]; i < rOffsets[v + 1]; i++) {
+                                int u = rTargets[i];
+                                if ((bits[u >>> 6] & (1L << u)) != 0) {
+                                    parent.lazySet(v, u);
+                                    distTo[v] = depth;
+                                    word |= 1L << v;
+                                    k++;
+                                    out += offsets[v + 1] - offsets[v];
+                                    in += rOffsets[v + 1] - rOffsets[v];
+                                    break;
+                                }
+                            }
+                        }
+                        next[wd] = word;
+                    }
+                    found.addAndGet(k);
+                    foundOut.addAndGet(out);
+                    foundIn.addAndGet(in);
+                });
+                nextBits = frontierBits;
+                frontierBits = next;
+                queueValid = false;
+            }
+            else {
+                if (!queueValid)
+                    queueSize = toQueue(frontierBits, V, queue);
+                final int[] frontier = queue;
+                final int[] next = nextQueue;
+                ParallelFor.run(pool, 0, queueSize, ParallelFor.grain(pool, queueSize, 64), (lo, hi) -> {
+                    IntBag discovered = new IntBag();
+                    long out = 0, in = 0;
+                    for (int j = lo; j < hi; j++) {
+                        int u = frontier[j];
+                        for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                            int w = targets[i];
+                            if (parent.get(w) == -1 && parent.compareAndSet(w, -1, u)) {
+                                distTo[w] = depth;
+                                discovered.add(w);
+                                out += offsets[w + 1] - offsets[w];
+                                in += rOffsets[w + 1] - rOffsets[w];
+                            }
+                        }
+                    }
+                    int at = found.getAndAdd(discovered.size());
+                    discovered.copyTo(next, at);
+                    foundOut.addAndGet(out);
+                    foundIn.addAndGet(in);
+                });
+                nextQueue = queue;
+                queue = next;
+                queueSize = found.get();
+                queueValid = true;
+            }
+            frontierSize = found.get();
+            frontierEdges = foundOut.get();
+            unexplored -= foundIn.get();
+            recordStep(bottomUp, System.nanoTime() - start);
+        }
+
+        edgeTo = new int[V];
+        for (int v = 0; v < V; v++)
+            edgeTo[v] = parent.get(v);
+    }
+
+    // lists the vertices whose bits are set, in increasing order
+    private static int toQueue(long[] bits, int V, int[] queue) {
+        int n = 0;
+        for (int wd = 0; wd < bits.length; wd++) {
+            long word = bits[wd];
+            while (word != 0) {
+                queue[n++] = (wd << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return n;
+    }
+
+    // records the direction and duration of the step just run
+    private void recordStep(boolean bottomUp, long nanos) {
+        if (steps == stepNanos.length) {
+            stepNanos = Arrays.copyOf(stepNanos, 2 * steps);
+            stepBottomUp = Arrays.copyOf(stepBottomUp, 2 * steps);
+        }
+        stepNanos[steps] = nanos;
+        stepBottomUp[steps] = bottomUp;
+        steps++;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Is there a directed path from the source {@code s} to vertex {@code v}?
+     *
+     * @param  v the vertex
+     * @return {@code true} if there is a directed path, {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] != INFINITY;
+    }
+
+    /**
+     * Returns the number of edges in a shortest path from the source
+     * {@code s} to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the number of edges in a shortest path, or
+     *         {@code Integer.MAX_VALUE} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns the vertex before {@code v} on a shortest path from the source
+     * {@code s}; the source is its own parent.
+     *
+     * @param  v the vertex
+     * @return the parent of {@code v} in the breadth-first search tree, or
+     *         -1 if there is no path from {@code s} to {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int parent(int v) {
+        validateVertex(v);
+        return edgeTo[v];
+    }
+
+    /**
+     * Returns a shortest path from the source {@code s} to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the vertices on a shortest path from {@code s} to {@code v},
+     *         in order, or {@code null} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int[] pathTo(int v) {
+        if (!hasPathTo(v)) return null;
+        int[] path = new int[distTo[v] + 1];
+        for (int i = distTo[v], x = v; i >= 0; i--, x = edgeTo[x])
+            path[i] = x;
+        return path;
+    }
+
+    /**
+     * Returns the number of search steps that were run, one per level of the
+     * breadth-first search tree plus a final step that found nothing new.
+     *
+     * @return the number of search steps
+     */
+    public int steps() {
+        return steps;
+    }
+
+    /**
+     * Returns the time taken by search step {@code i}, which discovered the
+     * vertices at distance {@code i + 1} from the source.
+     *
+     * @param  i the step
+     * @return the time taken by the step, in nanoseconds
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < steps()}
+     */
+    public long stepNanos(int i) {
+        validateStep(i);
+        return stepNanos[i];
+    }
+
+    /**
+     * Was search step {@code i} run bottom-up?
+     *
+     * @param  i the step
+     * @return {@code true} if the step was bottom-up; {@code false} if it was top-down
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < steps()}
+     */
+    public boolean isBottomUp(int i) {
+        validateStep(i);
+        return stepBottomUp[i];
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= i < steps()}
+    private void validateStep(int i) {
+        if (i < 0 || i >= steps())
+            throw new IndexOutOfBoundsException("step " + i + " is not between 0 and " + (steps() - 1));
+    }
+
+    /**
+     * Unit tests the {@code DirectionOptimizingBFS} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        int s = Integer.parseInt(args[1]);
+        DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(G, s);
+
+        for (int i = 0; i < bfs.steps(); i++) {
+            StdOut.printf("step %d: %-9s %8d ns%n", i, bfs.isBottomUp(i) ? "bottom-up" : "top-down", bfs.stepNanos(i));
+        }
+        for (int v = 0; v < G.V(); v++) {
+            if (bfs.hasPathTo(v)) {
+                StdOut.printf("%d to %d (%d):  ", s, v, bfs.distTo(v));
+                int[] path = bfs.pathTo(v);
+                for (int i = 0; i < path.length; i++) {
+                    if (i == 0) StdOut.print(path[i]);
+                    else        StdOut.print("-" + path[i]);
+                }
+                StdOut.println();
+            }
+            else {
+                StdOut.printf("%d to %d (-):  not connected%n", s, v);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/******************************************************************************
+ *  Compilation:  javac DisjointSet.java
+ *  Execution:    java DisjointSet < input.txt
+ *  Dependencies: StdIn.java StdOut.java
+ *
+ *  Disjoint-set (union-find) data type, implemented with weighted quick-union
+ *  (union by size) and path compression over int arrays.
+ *
+ *  % more tinyUF.txt
+ *  10
+ *  4 3
+ *  3 8
+ *  6 5
+ *  9 4
+ *  2 1
+ *  8 9
+ *  5 0
+ *  7 2
+ *  6 1
+ *  1 0
+ *  6 7
+ *
+ *  % java DisjointSet < tinyUF.txt
+ *  4 3
+ *  3 8
+ *  6 5
+ *  9 4
+ *  2 1
+ *  5 0
+ *  7 2
+ *  6 1
+ *  2 components
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code DisjointSet} class represents a disjoint-set (union-find) data
+ *  type over the elements 0 through <em>n</em> - 1. It supports the
+ *  <em>union</em> and <em>find</em> operations, along with a
+ *  <em>connected</em> operation for determining whether two elements are in
+ *  the same set, a <em>componentSize</em> operation for the size of an
+ *  element's set, and a <em>count</em> operation for the number of sets.
+ *  <p>
+ *  This implementation uses weighted quick union by size with full path
+ *  compression. The state is two {@code int[]} arrays, and {@code find} is
+ *  iterative, so no operation recurses or allocates. The constructor takes
+ *  time proportional to <em>n</em>; the other operations take amortized
+ *  time proportional to the inverse Ackermann function of <em>n</em>, which
+ *  is less than 5 for any practical <em>n</em>.
+ */
+public class DisjointSet {
+    private final int[] parent;  // parent[i] = parent of i
+    private final int[] size;    // size[i] = number of elements in tree rooted at i
+    private int count;           // number of components
+
+    /**
+     * Initializes an empty disjoint-set data structure with {@code n}
+     * elements 0 through {@code n-1}, each in its own set.
+     *
+     * @param  n the number of elements
+     * @throws IllegalArgumentException if {@code n < 0}
+     */
+    public DisjointSet(int n) {
+        if (n < 0) throw new IllegalArgumentException("Number of elements must be nonnegative");
+        count = n;
+        parent = new int[n];
+        size = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements (between {@code 0} and {@code n})
+     */
+    public int n() {
+        return parent.length;
+    }
+
+    /**
+     * Returns the number of sets.
+     *
+     * @return the number of sets (between {@code 1} and {@code n})
+     */
+    public int count() {
+        return count;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= p < n}
+    private void validate(int p) {
+        int n = parent.length;
+        if (p < 0 || p >= n)
+            throw new IndexOutOfBoundsException("index " + p + " is not between 0 and " + (n - 1));
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code p}.
+     *
+     * @param  p an element
+     * @return the canonical element of the set containing {@code p}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= p < n}
+     */
+    public int find(int p) {
+        validate(p);
+        int root = p;
+        while (root != parent[root])
+            root = parent[root];
+        // second pass points every element on the path straight at the root
+        while (p != root) {
+            int next = parent[p];
+            parent[p] = root;
+            p = next;
+        }
+        return root;
+    }
+
+    /**
+     * Returns true if the two elements are in the same set.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if {@code p} and {@code q} are in the same set;
+     *         {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Returns the number of elements in the set containing element {@code p}.
+     *
+     * @param  p an element
+     * @return the number of elements in the set containing {@code p}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= p < n}
+     */
+    public int componentSize(int p) {
+        return size[find(p)];
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the set containing
+     * element {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if the two sets were merged; {@code false} if
+     *         {@code p} and {@code q} were already in the same set
+     * @throws IndexOutOfBoundsException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return false;
+
+        // make smaller root point to larger one
+        if (size[rootP] < size[rootQ]) {
+            parent[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+        }
+        else {
+            parent[rootQ] = rootP;
+            size[rootP] += size[rootQ];
+        }
+        count--;
+        return true;
+    }
+
+    /**
+     * Reads in a sequence of pairs of integers (between 0 and n-1) from standard input,
+     * where each integer represents some element;
+     * if the elements are in different sets, merge the two sets
+     * and print the pair to standard output.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int n = StdIn.readInt();
+        DisjointSet uf = new DisjointSet(n);
+        while (!StdIn.isEmpty()) {
+            int p = StdIn.readInt();
+            int q = StdIn.readInt();
+            if (uf.union(p, q))
+                StdOut.println(p + " " + q);
+        }
+        StdOut.println(uf.count() + " components");
+    }
+}
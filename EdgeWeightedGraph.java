@@ -1,10 +1,10 @@
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Stack;
 /******************************************************************************
  *  Compilation:  javac EdgeWeightedGraph.java
  *  Execution:    java EdgeWeightedGraph filename.txt
- *  Dependencies: Bag.java Edge.java In.java StdOut.java
+ *  Dependencies: Bag.java Edge.java In.java FastIn.java NumberReader.java
+ *                StdOut.java KruskalMST.java
+ *                PrimMST.java DijkstraSP.java ShortestPathWorkspace.java
  *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
  *                http://algs4.cs.princeton.edu/43mst/mediumEWG.txt
  *                http://algs4.cs.princeton.edu/43mst/largeEWG.txt
@@ -53,9 +53,6 @@ public class EdgeWeightedGraph {
 	private final int V;
 	private int E;
 	private Bag<Edge>[] adj;
-	private ArrayList<KrusNode> set;
-	private ArrayList<Edge> edgeySet;
-	private ArrayList<Edge> edgesLookedAt;
 
 	/**
 	 * Initializes an empty edge-weighted graph with {@code V} vertices and 0
@@ -71,9 +68,6 @@ public class EdgeWeightedGraph {
 			throw new IllegalArgumentException("Number of vertices must be nonnegative");
 		this.V = V;
 		this.E = 0;
-		edgeySet = new ArrayList<>();
-		set = new ArrayList<>();
-		edgesLookedAt = new ArrayList<>();
 		adj = (Bag<Edge>[]) new Bag[V];
 		for (int v = 0; v < V; v++) {
 			adj[v] = new Bag<Edge>();
@@ -95,6 +89,28 @@ public class EdgeWeightedGraph {
 	 */
 	public EdgeWeightedGraph(In in) {
 		this(in.readInt());
+		readEdges(in);
+	}
+
+	/**
+	 * Initializes an edge-weighted graph from a {@link FastIn} input stream,
+	 * in the same format as {@link #EdgeWeightedGraph(In)}, without a string
+	 * per token.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @throws IndexOutOfBoundsException
+	 *             if the endpoints of any edge are not in prescribed range
+	 * @throws IllegalArgumentException
+	 *             if the number of vertices or edges is negative
+	 */
+	public EdgeWeightedGraph(FastIn in) {
+		this(in.readInt());
+		readEdges(in);
+	}
+
+	// reads the number of edges and the edges, for both kinds of input stream
+	private void readEdges(NumberReader in) {
 		int E = in.readInt();
 		if (E < 0)
 			throw new IllegalArgumentException("Number of edges must be nonnegative");
@@ -245,117 +261,47 @@ public class EdgeWeightedGraph {
 		}
 		return s.toString();
 	}
-	/*
-	 * creates a KrusNode with itself as the root node. These will later be all connected using Kruskal's
-	 */
-	public void makeSet(int x) {
-		KrusNode kNode = new KrusNode();
-		set.add(kNode);
-	}
-
-	/*
-	 * getParentNode(int x) takes in an int that points to a specified node in the list set
-	 * getParentNode(KrusNode krusIn) takes in a KrusNode and returns it's parent node. It will return 
-	 * itself if you have already reached the root node (it is it's own parent node)
-	 * 
-	 * getParentNode() and getRootNode() work in parallel to be the method findSet();
-	*/
-	public KrusNode getParentNode(int x) {
-		KrusNode kNode = set.get(x); // get the node from the set of verticies
-		if (kNode.getParentNode().equals(kNode)) return kNode; // if kNode is the root node, return kNode
-		else return getRootNode(getParentNode(kNode)); //else return it's parent Node
-	}
-	public KrusNode getParentNode(KrusNode krusIn) {
-		if (krusIn.getParentNode().equals(krusIn)) return krusIn; // if the node is the root node return that node
-		else return krusIn.getParentNode(); //else return the parent node
-	}
-	/*
-	 * Uses recursion to get the Root node
-	 * This gets used in getParentNode.
-	 */
-	public KrusNode getRootNode(KrusNode kNode){
-		if(kNode.getParentNode().equals(kNode)) return kNode; //if kNode is the root node return it
-		else return getRootNode(kNode.getParentNode()); //else recursively get the parent node until you've reached root
-	}
-
-	
-	/*
-	 * Method creates a union between two different nodes. 
-	 * 
-	 * if the size of k1 is greater than the size of k2, then we set k1 as the parent
-	 * if the size of k2 is greater than the size of k1, then we set k2 as the parent 
+	/**
+	 * Computes a minimum spanning tree (or forest) of this edge-weighted graph
+	 * using Kruskal's algorithm.
+	 *
+	 * @return a minimum spanning tree (or forest) of this edge-weighted graph
+	 * @see KruskalMST
 	 */
-	public void union(KrusNode k1, KrusNode k2) { 
-		if (k1.getSize() > k2.getSize()) {
-			k2.setParentNode(k1.getParentNode());
-			k2.plusOneSize();
-		} else {
-			k1.setParentNode(k2.getParentNode());
-			k1.plusOneSize();
-		}
+	public MinimumSpanningTree kruskal() {
+		return KruskalMST.mst(this);
 	}
 
-	/*
-	 * methods that print out the set of KrusNodes and the set of edges
-	 * Use these to display the list in a nice organized fashion
+	/**
+	 * Computes a minimum spanning tree (or forest) of this edge-weighted graph
+	 * using the eager version of Prim's algorithm.
+	 *
+	 * @return a minimum spanning tree (or forest) of this edge-weighted graph
+	 * @see PrimMST
 	 */
-	public void printSet() {
-		System.out.print("[");
-		for (KrusNode n : set) {
-			System.out.print(n + ",");
-		}
-		System.out.println("]");
-	}
-	public void printEdgeySet() {
-		System.out.print("[");
-		for (Edge e : edgeySet) {
-			System.out.print(e + ",");
-		}
-		System.out.println("]");
+	public MinimumSpanningTree prim() {
+		return PrimMST.mst(this);
 	}
 
-	/*
-	 * Kruskal's Algorithm method
+	/**
+	 * Computes the shortest paths from {@code s} to every vertex of this
+	 * edge-weighted graph using Dijkstra's algorithm. To answer many queries,
+	 * call {@link DijkstraSP} directly with a reused workspace.
+	 *
+	 * @param s
+	 *            the source vertex
+	 * @return a workspace holding the distances and parents of the shortest
+	 *         path tree from {@code s}
+	 * @throws IndexOutOfBoundsException
+	 *             unless {@code 0 <= s < V}
+	 * @throws IllegalArgumentException
+	 *             if a reachable edge has negative weight
+	 * @see DijkstraSP
 	 */
-	public void kruskal() {
-		for (Bag<Edge> b : adj) {
-			for (Edge e : b) {
-				edgeySet.add(e);
-			}
-		}
-		// sort the bag of edges
-		Collections.sort(edgeySet);
-		// go through list of edges, initialize the set of verticies
-		for (Edge e : edgeySet) { 
-			// get each vertex
-			int v = e.getV();
-			int w = e.getW();
-			//make a set of both v and w
-			makeSet(v); 
-			makeSet(w);
-		}
-
-		for (Edge e : edgeySet) { // loop through again, calls findSet on each vertex
-			// get each vertex
-			int v = e.getV();
-			int w = e.getW();
-			
-			// find the root node for each vertex
-			KrusNode rootNodeV = getRootNode(getParentNode(v)); //gets the rootNode of each set
-			KrusNode rootNodeW = getRootNode(getParentNode(w));
-			
-			KrusNode pNodeV = getParentNode(v); //get the parent node of each set
-			KrusNode pNodeW = getParentNode(w); //get and store the parent node of each set
-			
-			// if they have the same root node, it's a cycle, don't print
-			if (rootNodeV != rootNodeW) {
-				if (!edgesLookedAt.contains(e)) { //if we have not already checked it
-					edgesLookedAt.add(e); // add it to the edgesLookedAt
-					System.out.println(e); // print out the edge
-					union(pNodeV, pNodeW); //make a union between both parent nodes
-				}
-			}
-		}
+	public ShortestPathWorkspace dijkstra(int s) {
+		ShortestPathWorkspace ws = new ShortestPathWorkspace(V);
+		DijkstraSP.search(this, s, ws);
+		return ws;
 	}
 
 	/**
@@ -366,10 +312,10 @@ public class EdgeWeightedGraph {
 	 */
 
 	public static void main(String[] args) {
-		In in = new In(args[0]);
+		FastIn in = new FastIn(args[0]);
 		EdgeWeightedGraph G = new EdgeWeightedGraph(in);
 		StdOut.println(G);
-		G.kruskal();
+		StdOut.println(G.kruskal());
 	}
 
 }
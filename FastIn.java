@@ -0,0 +1,376 @@
+/******************************************************************************
+ *  Compilation:  javac FastIn.java
+ *  Execution:    java FastIn filename.txt
+ *  Dependencies: In.java NumberReader.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  Reads whitespace-separated ASCII numbers straight from a byte buffer,
+ *  without a String per token.
+ *
+ *  % java FastIn krusGraph.txt
+ *  98 numbers, sum 261.80000000000007
+ *  In:              0.0 MB/s
+ *  FastIn:          1.5 MB/s
+ *  same numbers: true
+ *
+ ******************************************************************************/
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ *  <i>Fast input</i>. The {@code FastIn} class reads integers and
+ *  floating-point numbers separated by whitespace, such as the graph files
+ *  read by {@link Graph#Graph(FastIn)} and
+ *  {@link EdgeWeightedGraph#EdgeWeightedGraph(FastIn)}, from standard
+ *  input, files, and URLs.
+ *  <p>
+ *  {@link In} wraps a {@link java.util.Scanner}, which decodes the input
+ *  into characters and matches every token against a regular expression
+ *  before converting it. This class reads raw bytes in large blocks into
+ *  one buffer and converts each token where it lies, copying it into a
+ *  reusable scratch array only when it straddles two blocks. An integer
+ *  is converted digit by digit, and a floating-point number by collecting
+ *  its significant digits and a decimal exponent. When there are at most
+ *  15 digits and the exponent is at most 22 in magnitude, the digits and
+ *  the power of ten are both exact {@code double}s, so one multiplication
+ *  or division gives the correctly rounded result (Clinger's fast path);
+ *  this covers nearly every number in a graph file. Any other token, such
+ *  as one with more digits, {@code NaN} or {@code Infinity}, is handed to
+ *  {@link Double#parseDouble(String)}, except that the Java-literal forms
+ *  that {@code In} rejects, hexadecimal and a trailing type suffix such
+ *  as {@code 1.5f}, are rejected here too. So every decimal value is
+ *  exactly what {@code In} returns; only {@code In}'s grouping separators,
+ *  as in {@code 1,000}, are not accepted. No object is allocated per
+ *  token.
+ *  <p>
+ *  Whitespace is any byte up to and including the ASCII space, and input
+ *  must be ASCII; numbers use the US format, like {@code In}. A byte
+ *  outside ASCII is part of the token it appears in, so that token is
+ *  rejected rather than split.
+ */
+public final class FastIn implements NumberReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // the powers of ten that are exact doubles
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream stream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;               // next unread byte of buffer
+    private int limit;                  // end of the bytes read into buffer
+    private byte[] scratch = new byte[64];  // holds a token split between two reads
+
+    // the current token is bytes[start .. end), in buffer or in scratch
+    private byte[] bytes;
+    private int start, end;
+
+    /**
+     * Initializes an input stream from standard input.
+     */
+    public FastIn() {
+        this(System.in);
+    }
+
+    /**
+     * Initializes an input stream from {@code stream}, which is read in
+     * large blocks and so needs no buffering of its own.
+     *
+     * @param  stream the stream to read
+     */
+    public FastIn(InputStream stream) {
+        if (stream == null) throw new NullPointerException("stream is null");
+        this.stream = stream;
+    }
+
+    /**
+     * Initializes an input stream from a file.
+     *
+     * @param  file the file
+     * @throws IllegalArgumentException if the file cannot be opened
+     */
+    public FastIn(File file) {
+        this(open(file));
+    }
+
+    /**
+     * Initializes an input stream from a file name, or else from a
+     * resource or URL of that name, like {@link In#In(String)}.
+     *
+     * @param  name the name of the file, resource, or URL
+     * @throws IllegalArgumentException if nothing of that name can be opened
+     */
+    public FastIn(String name) {
+        this(open(name));
+    }
+
+    private static InputStream open(File file) {
+        try {
+            return new FileInputStream(file);
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Could not open " + file, ioe);
+        }
+    }
+
+    private static InputStream open(String name) {
+        try {
+            File file = new File(name);
+            if (file.exists()) return new FileInputStream(file);
+            URL url = FastIn.class.getResource(name);
+            if (url == null) url = new URL(name);
+            return url.openStream();
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("Could not open " + name, ioe);
+        }
+    }
+
+    // reads the next block of input into buffer; returns false at the end
+    private boolean fill() {
+        try {
+            limit = stream.read(buffer, 0, buffer.length);
+        }
+        catch (IOException ioe) {
+            throw new IllegalStateException("Could not read input", ioe);
+        }
+        position = 0;
+        if (limit > 0) return true;
+        limit = 0;
+        return false;
+    }
+
+    // skips whitespace; returns false if the input ends first
+    private boolean skipWhitespace() {
+        do {
+            while (position < limit) {
+                if ((buffer[position] & 0xFF) > ' ') return true;
+                position++;
+            }
+        } while (fill());
+        return false;
+    }
+
+    // finds the next token, in place if it lies within buffer, and
+    // otherwise copied into scratch
+    private void readToken() {
+        if (!skipWhitespace()) throw new NoSuchElementException("No more tokens");
+        int i = position;
+        while (i < limit && (buffer[i] & 0xFF) > ' ') i++;
+        if (i < limit) {
+            bytes = buffer;
+            start = position;
+            end = i;
+            position = i;
+            return;
+        }
+        int length = 0;
+        do {
+            while (position < limit && (buffer[position] & 0xFF) > ' ') {
+                if (length == scratch.length) scratch = Arrays.copyOf(scratch, 2 * length);
+                scratch[length++] = buffer[position++];
+            }
+        } while (position == limit && fill());
+        bytes = scratch;
+        start = 0;
+        end = length;
+    }
+
+    // the current token as a string, for error messages and the slow path
+    private String tokenString() {
+        return new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    // an exception reporting that the current token is not a number
+    private InputMismatchException mismatch() {
+        return new InputMismatchException("For input string: \"" + tokenString() + "\"");
+    }
+
+    /**
+     * Is the input empty, except possibly for whitespace? Use this to know
+     * whether the next call to {@link #readInt()} or {@link #readDouble()}
+     * will find a token.
+     *
+     * @return {@code true} if only whitespace is left; {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return !skipWhitespace();
+    }
+
+    /**
+     * Reads and returns the next token as an {@code int}.
+     *
+     * @return the next {@code int}
+     * @throws NoSuchElementException if the input is empty
+     * @throws InputMismatchException if the next token is not an {@code int}
+     */
+    public int readInt() {
+        long value = readLong();
+        if (value != (int) value) throw mismatch();
+        return (int) value;
+    }
+
+    /**
+     * Reads and returns the next token as a {@code long}.
+     *
+     * @return the next {@code long}
+     * @throws NoSuchElementException if the input is empty
+     * @throws InputMismatchException if the next token is not a {@code long}
+     */
+    public long readLong() {
+        readToken();
+        byte[] b = bytes;
+        int i = start;
+        boolean negative = b[i] == '-';
+        if (negative || b[i] == '+') i++;
+        if (i == end) throw mismatch();
+        long value = 0;                 // accumulated negatively, to reach Long.MIN_VALUE
+        for (; i < end; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) throw mismatch();
+            value = 10 * value - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) throw mismatch();
+            value = -value;
+        }
+        return value;
+    }
+
+    /**
+     * Reads and returns the next token as a {@code double}.
+     *
+     * @return the next {@code double}
+     * @throws NoSuchElementException if the input is empty
+     * @throws InputMismatchException if the next token is not a {@code double}
+     */
+    public double readDouble() {
+        readToken();
+        byte[] b = bytes;
+        int i = start;
+        boolean negative = b[i] == '-';
+        if (negative || b[i] == '+') i++;
+
+        long digits = 0;                // the significant digits, as an exact integer
+        int count = 0;                  // how many of them
+        int exponent = 0;               // the value is digits * 10^exponent
+        boolean any = false;            // has a digit been seen?
+        for (; i < end && b[i] >= '0' && b[i] <= '9'; i++) {
+            any = true;
+            if (count > 0 || b[i] != '0') {
+                if (count == 15) return slowDouble();
+                digits = 10 * digits + (b[i] - '0');
+                count++;
+            }
+        }
+        if (i < end && b[i] == '.') {
+            for (i++; i < end && b[i] >= '0' && b[i] <= '9'; i++) {
+                any = true;
+                if (count > 0 || b[i] != '0') {
+                    if (count == 15) return slowDouble();
+                    digits = 10 * digits + (b[i] - '0');
+                    count++;
+                }
+                exponent--;
+            }
+        }
+        if (!any) return slowDouble();
+        if (i < end && (b[i] == 'e' || b[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < end && b[i] == '-';
+            if (i < end && (b[i] == '-' || b[i] == '+')) i++;
+            if (i == end) return slowDouble();
+            int e = 0;
+            for (; i < end && b[i] >= '0' && b[i] <= '9'; i++) {
+                if (e > 100000) return slowDouble();
+                e = 10 * e + (b[i] - '0');
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != end) return slowDouble();
+
+        double value;
+        if (digits == 0)                            value = 0.0;
+        else if (exponent >= 0 && exponent <= 22)   value = digits * POWERS_OF_TEN[exponent];
+        else if (exponent < 0 && exponent >= -22)   value = digits / POWERS_OF_TEN[-exponent];
+        else                                        return slowDouble();
+        return negative ? -value : value;
+    }
+
+    // the current token converted by the library, with an allocation;
+    // the Java-literal forms that Scanner rejects are rejected first
+    private double slowDouble() {
+        byte last = bytes[end - 1];
+        if (last == 'f' || last == 'F' || last == 'd' || last == 'D') throw mismatch();
+        for (int i = start; i < end; i++)
+            if (bytes[i] == 'x' || bytes[i] == 'X') throw mismatch();
+        try {
+            return Double.parseDouble(tokenString());
+        }
+        catch (NumberFormatException e) {
+            throw mismatch();
+        }
+    }
+
+    /**
+     * Closes this input stream.
+     */
+    public void close() {
+        try {
+            stream.close();
+        }
+        catch (IOException ioe) {
+            throw new IllegalStateException("Could not close input", ioe);
+        }
+    }
+
+    /**
+     * Unit tests the {@code FastIn} data type, reading every number of a
+     * file as a {@code double} with {@link In} and with {@code FastIn}.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        String name = args[0];
+        long bytes = new File(name).length();
+
+        long start = System.nanoTime();
+        In in = new In(name);
+        double[] expected = in.readAllDoubles();
+        long scanner = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        FastIn fast = new FastIn(name);
+        double[] values = new double[expected.length];
+        int n = 0;
+        boolean same = true;
+        while (!fast.isEmpty()) {
+            double value = fast.readDouble();
+            if (n < values.length) values[n] = value;
+            n++;
+        }
+        fast.close();
+        long buffered = System.nanoTime() - start;
+
+        same &= n == expected.length;
+        double sum = 0.0;
+        for (int i = 0; i < expected.length && same; i++) {
+            same &= Double.doubleToLongBits(values[i]) == Double.doubleToLongBits(expected[i]);
+            sum += values[i];
+        }
+        StdOut.println(n + " numbers, sum " + sum);
+        StdOut.printf("In:          %8.1f MB/s%n", bytes / 1e6 / (scanner / 1e9));
+        StdOut.printf("FastIn:      %8.1f MB/s%n", bytes / 1e6 / (buffered / 1e9));
+        StdOut.println("same numbers: " + same);
+    }
+}
@@ -1,9 +1,9 @@
-import java.util.Stack;
-
 /*************************************************************************
  *  Compilation:  javac Graph.java        
  *  Execution:    java Graph input.txt
- *  Dependencies: Bag.java In.java StdOut.java
+ *  Dependencies: IntBag.java CsrGraph.java ConnectedComponents.java
+ *                StrongComponents.java DirectedCycle.java In.java FastIn.java
+ *                NumberReader.java StdOut.java
  *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
  *
  *  A graph, implemented using an array of sets.
@@ -42,8 +42,8 @@ import java.util.Stack;
  * the number of edges <em>E</em>. Parallel edges and self-loops are permitted.
  * <p>
  * This implementation uses an adjacency-lists representation, which is a
- * vertex-indexed array of {@link Bag} objects. All operations take constant
- * time (in the worst case) except iterating over the vertices adjacent to a
+ * vertex-indexed array of {@link IntBag} objects. All operations take
+ * constant time (amortized) except iterating over the vertices adjacent to a
  * given vertex, which takes time proportional to the number of such vertices.
  * <p>
  * For additional documentation, see
@@ -56,13 +56,7 @@ import java.util.Stack;
 public class Graph {
 	private final int V;
 	private int E;
-	private Bag<Integer>[] adj;
-	private Mark[] marked;
-	private boolean isCycle = false;
-	
-	private enum Mark {
-		WHITE, GRAY, BLACK
-	};
+	private IntBag[] adj;
 
 	/**
 	 * Initializes an empty graph with <tt>V</tt> vertices and 0 edges. param V
@@ -76,11 +70,9 @@ public class Graph {
 			throw new IllegalArgumentException("Number of vertices must be nonnegative");
 		this.V = V;
 		this.E = 0;
-		adj = (Bag<Integer>[]) new Bag[V];
-		marked = new Mark[V];
+		adj = new IntBag[V];
 		for (int v = 0; v < V; v++) {
-			adj[v] = new Bag<Integer>();
-			marked[v] = Mark.WHITE;
+			adj[v] = new IntBag();
 		}
 	}
 
@@ -98,6 +90,27 @@ public class Graph {
 	 */
 	public Graph(In in) {
 		this(in.readInt());
+		readEdges(in);
+	}
+
+	/**
+	 * Initializes a graph from a {@link FastIn} input stream, in the same
+	 * format as {@link #Graph(In)}, without a string per token.
+	 * 
+	 * @param in
+	 *            the input stream
+	 * @throws java.lang.IndexOutOfBoundsException
+	 *             if the endpoints of any edge are not in prescribed range
+	 * @throws java.lang.IllegalArgumentException
+	 *             if the number of vertices or edges is negative
+	 */
+	public Graph(FastIn in) {
+		this(in.readInt());
+		readEdges(in);
+	}
+
+	// reads the number of edges and the edges, for both kinds of input stream
+	private void readEdges(NumberReader in) {
 		int E = in.readInt();
 		if (E < 0)
 			throw new IllegalArgumentException("Number of edges must be nonnegative");
@@ -118,14 +131,7 @@ public class Graph {
 		this(G.V());
 		this.E = G.E();
 		for (int v = 0; v < G.V(); v++) {
-			// reverse so that adjacency list is in same order as original
-			Stack<Integer> reverse = new Stack<Integer>();
-			for (int w : G.adj[v]) {
-				reverse.push(w);
-			}
-			for (int w : reverse) {
-				adj[v].add(w);
-			}
+			adj[v] = new IntBag(G.adj[v]);
 		}
 	}
 
@@ -169,56 +175,52 @@ public class Graph {
 		// adj[w].add(v);
 	}
 
-	private void dfs(int v) {
-		System.out.println("visiting:" + v);
-		marked[v] = Mark.GRAY;
-		for (int w : adj[v]) {
-			if (marked[w] == Mark.WHITE)
-				dfs(w);
-		}
-		marked[v] = Mark.BLACK;
+	/**
+	 * Returns a frozen copy of this graph in compressed sparse row form. The
+	 * adjacency lists are packed into two int arrays, so iterating over the
+	 * vertices adjacent to a vertex is a contiguous scan. Later calls to
+	 * {@link #addEdge(int, int)} are not reflected in the returned graph.
+	 * 
+	 * @return this graph as a {@link CsrGraph}
+	 */
+	public CsrGraph freeze() {
+		return new CsrGraph(this);
 	}
 
-	private void dfs2(int v) {
-		System.out.println("visiting:" + v);
-		marked[v] = Mark.GRAY;
-		for (int w : adj[v]) {
-			if (marked[w] == Mark.GRAY) {
-				isCycle = true;
-			}
-			if (marked[w] == Mark.WHITE)
-				dfs2(w);
-		}
-		marked[v] = Mark.BLACK;
-	}
-	
-	private void cycle(int v) {
-		while(notVisited()!=-1){
-			dfs2(notVisited());
-		}
-		if(isCycle) System.out.println("There is a cylce");
-		else System.out.println("there is no cycle");
+	/**
+	 * Finds a directed cycle in this graph, or a topological order of its
+	 * vertices if it has none. The answer is returned as data: use
+	 * {@link DirectedCycle#hasCycle()}, then {@link DirectedCycle#cycle()} or
+	 * {@link DirectedCycle#order()}.
+	 * 
+	 * @return a directed cycle or a topological order of this graph
+	 * @see DirectedCycle
+	 */
+	public DirectedCycle findCycle() {
+		return new DirectedCycle(freeze());
 	}
 
-	
-	// function returns -1 if there are no more unvisited nodes
-	private int notVisited() {
-		for (int i = 0; i < V - 1; i++) {
-			if (marked[i] == Mark.WHITE)
-				return i;
-		}
-		return -1;
+	/**
+	 * Labels the connected components of this graph in time proportional to
+	 * <em>V</em> + <em>E</em>. Edges are followed in both directions, so for
+	 * directed edges these are the weakly connected components.
+	 * 
+	 * @return the connected components of this graph
+	 * @see ConnectedComponents
+	 */
+	public ConnectedComponents connectedComponents() {
+		return new ConnectedComponents(freeze());
 	}
 
-	private void connectedComponents(int v) {
-		int count = 0;
-		// while unvisited nodes
-		while (notVisited() != -1) {
-			System.out.println("\nComponent " + count);
-			dfs(notVisited());
-			count++;
-		}
-		System.out.println("There are " + count + " components");
+	/**
+	 * Labels the strongly connected components of this graph, read with its
+	 * edges directed, in time proportional to <em>V</em> + <em>E</em>.
+	 * 
+	 * @return the strong components of this graph
+	 * @see StrongComponents
+	 */
+	public StrongComponents strongComponents() {
+		return new StrongComponents(freeze());
 	}
 
 	/**
@@ -233,7 +235,29 @@ public class Graph {
 	public Iterable<Integer> adj(int v) {
 		if (v < 0 || v >= V)
 			throw new IndexOutOfBoundsException();
-		return adj[v];
+		final IntBag bag = adj[v];
+		return () -> bag.iterator();
+	}
+
+	/**
+	 * Returns the degree of vertex <tt>v</tt>.
+	 * 
+	 * @param v
+	 *            the vertex
+	 * @return the degree of vertex <tt>v</tt>
+	 * @throws java.lang.IndexOutOfBoundsException
+	 *             unless 0 <= v < V
+	 */
+	public int degree(int v) {
+		if (v < 0 || v >= V)
+			throw new IndexOutOfBoundsException();
+		return adj[v].size();
+	}
+
+	// copies the vertices adjacent to v, in iteration order, into dst
+	// starting at pos and returns the index one past the last one copied
+	int copyAdj(int v, int[] dst, int pos) {
+		return adj[v].copyTo(dst, pos);
 	}
 
 	/**
@@ -249,9 +273,7 @@ public class Graph {
 		s.append(V + " vertices, " + E + " edges " + NEWLINE);
 		for (int v = 0; v < V; v++) {
 			s.append(v + ": ");
-			for (int w : adj[v]) {
-				s.append(w + " ");
-			}
+			adj[v].forEach(w -> s.append(w + " "));
 			s.append(NEWLINE);
 		}
 		return s.toString();
@@ -263,17 +285,21 @@ public class Graph {
 
 
 
-    public void makeSet(int x){
-        KrusNode node = new KrusNode();
-    }
-
 	public static void main(String[] args) {
-		In in = new In(args[0]);
+		FastIn in = new FastIn(args[0]);
 		Graph G = new Graph(in);
 		StdOut.println(G);
-		// System.out.println("\n");
-		// G.connectedComponents(0);
-		G.cycle(0);
+		StdOut.println("There are " + G.connectedComponents().count() + " components");
+		StdOut.println("There are " + G.strongComponents().count() + " strong components");
+		DirectedCycle finder = G.findCycle();
+		if (finder.hasCycle()) {
+			StringBuilder s = new StringBuilder("There is a cycle:");
+			for (int v : finder.cycle())
+				s.append(" " + v);
+			StdOut.println(s);
+		} else {
+			StdOut.println("there is no cycle");
+		}
 	}
 
 }
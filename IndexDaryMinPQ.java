@@ -0,0 +1,308 @@
+/******************************************************************************
+ *  Compilation:  javac IndexDaryMinPQ.java
+ *  Execution:    java IndexDaryMinPQ
+ *  Dependencies: StdOut.java
+ *
+ *  Indexed d-ary min-heap over primitive double keys.
+ *
+ *  % java IndexDaryMinPQ
+ *  3 0.5
+ *  1 1.0
+ *  0 2.5
+ *  2 4.0
+ *
+ ******************************************************************************/
+
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code IndexDaryMinPQ} class represents an indexed priority queue of
+ *  {@code double} keys. It supports the usual <em>insert</em> and
+ *  <em>delete-the-minimum</em> operations, along with <em>decrease-key</em>
+ *  and testing whether an index is in the queue. Each entry is named by an
+ *  integer index between 0 and <em>maxN</em> - 1, so that an algorithm can
+ *  refer to a queued vertex by its own name.
+ *  <p>
+ *  This implementation uses a <em>d</em>-ary heap stored in {@code int[]}
+ *  and {@code double[]} arrays, with an inverse array from index to heap
+ *  position. No operation allocates. A wider heap makes <em>insert</em> and
+ *  <em>decrease-key</em> cheaper at the cost of <em>delete-the-minimum</em>,
+ *  which is the right trade for graph searches that relax far more edges
+ *  than they settle vertices. The <em>insert</em> and <em>decrease-key</em>
+ *  operations take time proportional to
+ *  log<sub><em>d</em></sub> <em>n</em>; <em>delete-the-minimum</em> takes
+ *  time proportional to <em>d</em> log<sub><em>d</em></sub> <em>n</em>.
+ *  The <em>contains</em>, <em>minIndex</em>, <em>minKey</em>, <em>size</em>,
+ *  and <em>isEmpty</em> operations take constant time; {@link #clear()} takes
+ *  time proportional to the number of indices on the queue.
+ */
+public class IndexDaryMinPQ {
+    private final int d;        // arity
+    private final int maxN;     // maximum number of elements on PQ
+    private int n;              // number of elements on PQ
+    private final int[] pq;     // heap position -> index
+    private final int[] qp;     // index -> heap position, or -1 if absent
+    private final double[] keys;  // keys[i] = priority of index i
+
+    /**
+     * Initializes an empty 4-ary indexed priority queue with indices between
+     * {@code 0} and {@code maxN - 1}.
+     *
+     * @param  maxN the keys on this priority queue are indices from {@code 0}
+     *         to {@code maxN - 1}
+     * @throws IllegalArgumentException if {@code maxN < 0}
+     */
+    public IndexDaryMinPQ(int maxN) {
+        this(maxN, 4);
+    }
+
+    /**
+     * Initializes an empty {@code d}-ary indexed priority queue with indices
+     * between {@code 0} and {@code maxN - 1}.
+     *
+     * @param  maxN the keys on this priority queue are indices from {@code 0}
+     *         to {@code maxN - 1}
+     * @param  d the arity of the heap
+     * @throws IllegalArgumentException if {@code maxN < 0} or {@code d < 2}
+     */
+    public IndexDaryMinPQ(int maxN, int d) {
+        if (maxN < 0) throw new IllegalArgumentException("Maximum size must be nonnegative");
+        if (d < 2) throw new IllegalArgumentException("Arity must be at least 2");
+        this.d = d;
+        this.maxN = maxN;
+        pq = new int[maxN];
+        qp = new int[maxN];
+        keys = new double[maxN];
+        for (int i = 0; i < maxN; i++)
+            qp[i] = -1;
+    }
+
+    /**
+     * Returns true if this priority queue is empty.
+     *
+     * @return {@code true} if this priority queue is empty;
+     *         {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Returns the number of keys on this priority queue.
+     *
+     * @return the number of keys on this priority queue
+     */
+    public int size() {
+        return n;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+    private void validateIndex(int i) {
+        if (i < 0 || i >= maxN)
+            throw new IndexOutOfBoundsException("index " + i + " is not between 0 and " + (maxN - 1));
+    }
+
+    /**
+     * Is {@code i} an index on this priority queue?
+     *
+     * @param  i an index
+     * @return {@code true} if {@code i} is an index on this priority queue;
+     *         {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     */
+    public boolean contains(int i) {
+        validateIndex(i);
+        return qp[i] != -1;
+    }
+
+    /**
+     * Associates key with index {@code i}.
+     *
+     * @param  i an index
+     * @param  key the key to associate with index {@code i}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if there already is an item
+     *         associated with index {@code i}
+     */
+    public void insert(int i, double key) {
+        validateIndex(i);
+        if (qp[i] != -1) throw new IllegalArgumentException("index is already in the priority queue");
+        qp[i] = n;
+        pq[n] = i;
+        keys[i] = key;
+        swim(n++);
+    }
+
+    /**
+     * Returns an index associated with a minimum key.
+     *
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int minIndex() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return pq[0];
+    }
+
+    /**
+     * Returns a minimum key.
+     *
+     * @return a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public double minKey() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return keys[pq[0]];
+    }
+
+    /**
+     * Removes a minimum key and returns its associated index.
+     *
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int delMin() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        int min = pq[0];
+        qp[min] = -1;
+        if (--n > 0) {
+            pq[0] = pq[n];
+            qp[pq[0]] = 0;
+            sink(0);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the key associated with index {@code i}.
+     *
+     * @param  i the index of the key to return
+     * @return the key associated with index {@code i}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public double keyOf(int i) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        return keys[i];
+    }
+
+    /**
+     * Decrease the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to decrease
+     * @param  key decrease the key associated with index {@code i} to this key
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key > keyOf(i)}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void decreaseKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (key > keys[i])
+            throw new IllegalArgumentException("Calling decreaseKey() with given argument would not strictly decrease the key");
+        keys[i] = key;
+        swim(qp[i]);
+    }
+
+    /**
+     * Inserts index {@code i} with the given key, or lowers its key to
+     * {@code key} if it is already on the queue with a larger key. This is
+     * the relaxation step of Prim's and Dijkstra's algorithms.
+     *
+     * @param  i an index
+     * @param  key the new key
+     * @return {@code true} if the queue changed; {@code false} if {@code i}
+     *         was already on the queue with a key no larger than {@code key}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < maxN}
+     */
+    public boolean insertOrDecrease(int i, double key) {
+        validateIndex(i);
+        if (qp[i] == -1) {
+            qp[i] = n;
+            pq[n] = i;
+            keys[i] = key;
+            swim(n++);
+            return true;
+        }
+        if (key < keys[i]) {
+            keys[i] = key;
+            swim(qp[i]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes every index from this priority queue, in time proportional to
+     * the number of indices on it.
+     */
+    public void clear() {
+        for (int k = 0; k < n; k++)
+            qp[pq[k]] = -1;
+        n = 0;
+    }
+
+   /***************************************************************************
+    * Heap helper functions.
+    ***************************************************************************/
+
+    private void swim(int k) {
+        int i = pq[k];
+        double key = keys[i];
+        while (k > 0) {
+            int parent = (k - 1) / d;
+            int p = pq[parent];
+            if (keys[p] <= key) break;
+            pq[k] = p;
+            qp[p] = k;
+            k = parent;
+        }
+        pq[k] = i;
+        qp[i] = k;
+    }
+
+    private void sink(int k) {
+        int i = pq[k];
+        double key = keys[i];
+        while (true) {
+            int first = d * k + 1;
+            if (first >= n) break;
+            int last = Math.min(first + d, n);
+            int child = first;
+            double min = keys[pq[first]];
+            for (int c = first + 1; c < last; c++) {
+                double ck = keys[pq[c]];
+                if (ck < min) {
+                    min = ck;
+                    child = c;
+                }
+            }
+            if (min >= key) break;
+            int ci = pq[child];
+            pq[k] = ci;
+            qp[ci] = k;
+            k = child;
+        }
+        pq[k] = i;
+        qp[i] = k;
+    }
+
+    /**
+     * Unit tests the {@code IndexDaryMinPQ} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        IndexDaryMinPQ pq = new IndexDaryMinPQ(4, 3);
+        pq.insert(0, 3.0);
+        pq.insert(1, 1.0);
+        pq.insert(2, 4.0);
+        pq.insert(3, 5.0);
+        pq.decreaseKey(3, 0.5);
+        pq.insertOrDecrease(0, 2.5);
+        pq.insertOrDecrease(2, 9.0);
+        while (!pq.isEmpty()) {
+            double key = pq.minKey();
+            StdOut.println(pq.delMin() + " " + key);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/******************************************************************************
+ *  Compilation:  javac IntBag.java
+ *  Execution:    java IntBag < input.txt
+ *  Dependencies: StdIn.java StdOut.java
+ *
+ *  A bag of primitive ints, implemented using a resizing array.
+ *
+ *  % more tinyInts.txt
+ *  5 4 0 9 6
+ *
+ *  % java IntBag < tinyInts.txt
+ *  size of bag = 5
+ *  6
+ *  9
+ *  0
+ *  4
+ *  5
+ *
+ ******************************************************************************/
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ *  The {@code IntBag} class represents a bag (or multiset) of primitive
+ *  ints. It supports insertion and iterating over the items in arbitrary
+ *  order, like {@link Bag}, but stores the items in a single {@code int[]}
+ *  rather than one linked-list node and one boxed {@code Integer} per item.
+ *  <p>
+ *  This implementation uses a resizing array, which doubles when full.
+ *  The <em>add</em> operation takes constant amortized time; the
+ *  <em>isEmpty</em> and <em>size</em> operations take constant time.
+ *  Iteration takes time proportional to the number of items and visits the
+ *  items in reverse order of insertion, which is the order {@link Bag}
+ *  uses. Prefer {@link #forEach(IntConsumer)} to {@link #iterator()} on hot
+ *  paths; it does not box.
+ */
+public class IntBag {
+    private static final int INIT_CAPACITY = 2;
+
+    private int[] a;     // items
+    private int N;       // number of items in bag
+
+    /**
+     * Initializes an empty bag.
+     */
+    public IntBag() {
+        this(INIT_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty bag with room for {@code capacity} items before
+     * it needs to grow.
+     *
+     * @param  capacity the initial capacity
+     * @throws IllegalArgumentException if {@code capacity < 0}
+     */
+    public IntBag(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity must be nonnegative");
+        a = new int[capacity];
+        N = 0;
+    }
+
+    /**
+     * Initializes a new bag that is a copy of {@code that}.
+     *
+     * @param  that the bag to copy
+     */
+    public IntBag(IntBag that) {
+        a = new int[Math.max(that.N, INIT_CAPACITY)];
+        System.arraycopy(that.a, 0, a, 0, that.N);
+        N = that.N;
+    }
+
+    /**
+     * Is this bag empty?
+     * @return true if this bag is empty; false otherwise
+     */
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    /**
+     * Returns the number of items in this bag.
+     * @return the number of items in this bag
+     */
+    public int size() {
+        return N;
+    }
+
+    /**
+     * Adds the item to this bag.
+     * @param item the item to add to this bag
+     */
+    public void add(int item) {
+        if (N == a.length) {
+            int[] temp = new int[Math.max(2 * a.length, INIT_CAPACITY)];
+            System.arraycopy(a, 0, temp, 0, N);
+            a = temp;
+        }
+        a[N++] = item;
+    }
+
+    /**
+     * Performs the given action for each item in the bag, in iteration order.
+     * @param action the action to perform on each item
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = N - 1; i >= 0; i--)
+            action.accept(a[i]);
+    }
+
+    /**
+     * Copies the items in this bag, in iteration order, into {@code dst}
+     * starting at index {@code pos}.
+     * @param dst the destination array
+     * @param pos the index in {@code dst} of the first item
+     * @return the index in {@code dst} one past the last item copied
+     */
+    public int copyTo(int[] dst, int pos) {
+        for (int i = N - 1; i >= 0; i--)
+            dst[pos++] = a[i];
+        return pos;
+    }
+
+    /**
+     * Returns an iterator that iterates over the items in the bag in arbitrary order.
+     * @return an iterator that iterates over the items in the bag in arbitrary order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new ReverseArrayIterator();
+    }
+
+    // an iterator, doesn't implement remove() since it's optional
+    private class ReverseArrayIterator implements PrimitiveIterator.OfInt {
+        private int i = N;
+
+        public boolean hasNext()  { return i > 0;                               }
+        public void remove()      { throw new UnsupportedOperationException();  }
+
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return a[--i];
+        }
+    }
+
+    /**
+     * Unit tests the {@code IntBag} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        IntBag bag = new IntBag();
+        while (!StdIn.isEmpty()) {
+            int item = StdIn.readInt();
+            bag.add(item);
+        }
+
+        StdOut.println("size of bag = " + bag.size());
+        bag.forEach(x -> StdOut.println(x));
+    }
+}
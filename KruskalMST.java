@@ -0,0 +1,207 @@
+/******************************************************************************
+ *  Compilation:  javac KruskalMST.java
+ *  Execution:    java  KruskalMST filename.txt
+ *  Dependencies: CsrEdgeWeightedGraph.java EdgeWeightedGraph.java
+ *                MinimumSpanningTree.java DisjointSet.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  Compute a minimum spanning forest using Kruskal's algorithm.
+ *
+ *  % java KruskalMST krusGraph.txt
+ *  0-7 0.16000
+ *  2-3 0.17000
+ *  1-7 0.19000
+ *  0-2 0.26000
+ *  1-5 0.32000
+ *  0-4 0.38000
+ *  6-2 0.40000
+ *  1.88000
+ *  filter-kruskal: 1.88000
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code KruskalMST} class computes a minimum spanning tree (or forest)
+ *  of an edge-weighted graph with Kruskal's algorithm.
+ *  <p>
+ *  The edge ids are sorted by weight with a primitive sort, and the
+ *  components are tracked in a {@link DisjointSet}, whose state is two
+ *  {@code int[]} arrays, so no object is allocated per edge or per
+ *  vertex. The scan stops as soon as <em>V</em> - 1 edges have been
+ *  accepted. The running time is dominated by the sort and is
+ *  proportional to <em>E</em> log <em>E</em> in the worst case; the extra
+ *  space is proportional to <em>E</em> + <em>V</em>.
+ *  <p>
+ *  For dense graphs, {@link #filterMst(CsrEdgeWeightedGraph)} runs the
+ *  Filter-Kruskal variant, which discards most cycle edges before they are
+ *  ever sorted.
+ */
+public class KruskalMST {
+
+    // the graph's edge arrays
+    private final int[] from;
+    private final int[] to;
+    private final double[] weight;
+
+    // components of the vertices, and the edges accepted so far
+    private final DisjointSet uf;
+    private final MinimumSpanningTree mst;
+    private final int target;
+
+    private KruskalMST(CsrEdgeWeightedGraph G) {
+        int V = G.V();
+        from = G.fromArray();
+        to = G.toArray();
+        weight = G.weightArray();
+        uf = new DisjointSet(V);
+        target = Math.max(V - 1, 0);
+        mst = new MinimumSpanningTree(target);
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G}. The edges of {@code G} are first copied into a
+     * {@link CsrEdgeWeightedGraph}.
+     *
+     * @param  G the edge-weighted graph
+     * @return a minimum spanning tree (or forest) of {@code G}
+     */
+    public static MinimumSpanningTree mst(EdgeWeightedGraph G) {
+        return mst(new CsrEdgeWeightedGraph(G));
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G}.
+     *
+     * @param  G the edge-weighted graph
+     * @return a minimum spanning tree (or forest) of {@code G}
+     */
+    public static MinimumSpanningTree mst(CsrEdgeWeightedGraph G) {
+        KruskalMST k = new KruskalMST(G);
+        int[] ids = G.edges();
+        G.sortByWeight(ids, 0, ids.length);
+        k.scan(ids, 0, ids.length);
+        return k.mst;
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G} with Filter-Kruskal. The edges of {@code G} are first copied
+     * into a {@link CsrEdgeWeightedGraph}.
+     *
+     * @param  G the edge-weighted graph
+     * @return a minimum spanning tree (or forest) of {@code G}
+     * @see #filterMst(CsrEdgeWeightedGraph)
+     */
+    public static MinimumSpanningTree filterMst(EdgeWeightedGraph G) {
+        return filterMst(new CsrEdgeWeightedGraph(G));
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G} with Filter-Kruskal. Instead of sorting every edge up front,
+     * the edges are partitioned around a pivot weight as in quicksort; the
+     * light half is solved first, and then every heavy edge whose endpoints
+     * are already connected is discarded before the heavy half is
+     * partitioned any further. Once a range holds no more than <em>V</em>
+     * edges it is sorted and scanned as usual. On graphs where <em>E</em>
+     * is much larger than <em>V</em>, most edges are discarded by the filter
+     * and never sorted, and the scan stops early once <em>V</em> - 1 edges
+     * have been accepted. The result has the same weight as
+     * {@link #mst(CsrEdgeWeightedGraph)}.
+     *
+     * @param  G the edge-weighted graph
+     * @return a minimum spanning tree (or forest) of {@code G}
+     */
+    public static MinimumSpanningTree filterMst(CsrEdgeWeightedGraph G) {
+        KruskalMST k = new KruskalMST(G);
+        int[] ids = G.edges();
+        k.filterKruskal(G, ids, 0, ids.length, Math.max(G.V(), 16));
+        return k.mst;
+    }
+
+    // solves ids[lo..hi) with Filter-Kruskal; ranges of at most threshold
+    // edges are sorted and scanned directly
+    private void filterKruskal(CsrEdgeWeightedGraph G, int[] ids, int lo, int hi, int threshold) {
+        while (mst.size() < target) {
+            if (hi - lo <= threshold) {
+                G.sortByWeight(ids, lo, hi);
+                scan(ids, lo, hi);
+                return;
+            }
+            double pivot = median(weight[ids[lo]], weight[ids[(lo + hi) >>> 1]], weight[ids[hi - 1]]);
+            int mid = partition(ids, lo, hi, pivot, false);
+            if (mid == lo) {
+                // pivot is the minimum; split off the edges equal to it instead
+                mid = partition(ids, lo, hi, pivot, true);
+                if (mid == hi) {
+                    // all weights equal, so any order is sorted
+                    scan(ids, lo, hi);
+                    return;
+                }
+            }
+            filterKruskal(G, ids, lo, mid, threshold);
+            lo = mid;
+            hi = filter(ids, lo, hi);
+        }
+    }
+
+    // moves the ids in [lo, hi) whose weight is below the pivot (or at most
+    // the pivot if inclusive) to the front, and returns the split point
+    private int partition(int[] ids, int lo, int hi, double pivot, boolean inclusive) {
+        int i = lo;
+        for (int j = lo; j < hi; j++) {
+            double w = weight[ids[j]];
+            if (w < pivot || (inclusive && w == pivot)) {
+                int t = ids[i];
+                ids[i++] = ids[j];
+                ids[j] = t;
+            }
+        }
+        return i;
+    }
+
+    // keeps the ids in [lo, hi) whose endpoints are in different trees,
+    // packed at the front, and returns the new end of the range
+    private int filter(int[] ids, int lo, int hi) {
+        int k = lo;
+        for (int i = lo; i < hi; i++) {
+            int e = ids[i];
+            if (!uf.connected(from[e], to[e]))
+                ids[k++] = e;
+        }
+        return k;
+    }
+
+    private static double median(double a, double b, double c) {
+        if (a < b) {
+            if (b < c) return b;
+            return a < c ? c : a;
+        }
+        if (a < c) return a;
+        return b < c ? c : b;
+    }
+
+    // runs the Kruskal scan over ids[lo..hi), which must be sorted by weight
+    private void scan(int[] ids, int lo, int hi) {
+        for (int i = lo; i < hi && mst.size() < target; i++) {
+            int e = ids[i];
+            if (uf.union(from[e], to[e]))
+                mst.add(from[e], to[e], weight[e]);
+        }
+    }
+
+    /**
+     * Unit tests the {@code KruskalMST} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedGraph G = new EdgeWeightedGraph(in);
+        MinimumSpanningTree mst = KruskalMST.mst(G);
+        StdOut.println(mst);
+        StdOut.printf("filter-kruskal: %.5f%n", KruskalMST.filterMst(G).weight());
+    }
+}
@@ -0,0 +1,577 @@
+/******************************************************************************
+ *  Compilation:  javac LandmarkAStar.java
+ *  Execution:    java LandmarkAStar filename.txt s t [landmarks]
+ *  Dependencies: CsrEdgeWeightedGraph.java EdgeWeightedGraph.java
+ *                ShortestPathWorkspace.java IndexDaryMinPQ.java
+ *                DeltaSteppingSP.java ParallelFor.java DijkstraSP.java
+ *                CsrGraph.java ConnectedComponents.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  A* search with landmark lower bounds (ALT): point-to-point shortest
+ *  paths after a light preprocessing step.
+ *
+ *  % java LandmarkAStar krusGraph.txt 0 5 4
+ *  4 landmarks in 24.7 ms: 5 6 4 3
+ *  0 to 5 (0.67):  0-7-1-5
+ *  1000 queries agree with DijkstraSP: true
+ *  dijkstra:           0.5 us/query
+ *  landmark A*:        0.6 us/query
+ *  saved and reloaded: true
+ *
+ ******************************************************************************/
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  The {@code LandmarkAStar} class answers point-to-point shortest-path
+ *  queries in an undirected graph with nonnegative edge weights using A*
+ *  search guided by <em>landmarks</em>. Any number of threads may query
+ *  one instance at once.
+ *  <p>
+ *  Preprocessing picks a few landmarks and stores the distance from each
+ *  landmark to every vertex. By the triangle inequality, the distance from
+ *  <em>v</em> to the target <em>t</em> is at least
+ *  |<em>d</em>(<em>L</em>, <em>t</em>) &minus; <em>d</em>(<em>L</em>, <em>v</em>)|
+ *  for every landmark <em>L</em>, and A* settles vertices in order of
+ *  their distance from the source plus this lower bound, which steers the
+ *  search towards <em>t</em>. A landmark only bounds distances within its
+ *  own connected component, and isolated vertices never need one, so the
+ *  landmarks are shared out among the components with two or more
+ *  vertices in proportion to their sizes, rounding in favor of the larger
+ *  ones. Within a component they are chosen by farthest-point selection:
+ *  the first is the vertex farthest from an arbitrary member, and each
+ *  next one is the vertex farthest from all the landmarks chosen so far,
+ *  so they end up on the fringes of the component, where the bounds are
+ *  tightest. Each landmark's distances are computed with
+ *  {@link DeltaSteppingSP} on a {@link ForkJoinPool}.
+ *  <p>
+ *  The distances are stored as one {@code float[]} per landmark, half the
+ *  size of {@code double}s, rounded down so that they never overestimate.
+ *  The bounds subtract the next larger {@code float}, which keeps them
+ *  lower bounds but not necessarily consistent, so a vertex whose distance
+ *  improves after it was settled is put back on the queue; the first path
+ *  to the target taken off the queue is still a shortest one. Each query
+ *  uses only the few landmarks that give the best bound at the source.
+ *  {@link #save(String)} and {@link #load(CsrEdgeWeightedGraph, String)}
+ *  write and read the tables, so they need not be recomputed at every
+ *  startup. Each thread gets its own {@link ShortestPathWorkspace}, so a
+ *  query allocates nothing except the returned path.
+ */
+public class LandmarkAStar {
+    private static final int MAGIC = 0x414C0001;    // identifies the file format, version 1
+    private static final int ACTIVE = 4;            // landmarks used by one query
+
+    private final CsrEdgeWeightedGraph G;
+    private final int[] offsets, incident, from, to;
+    private final double[] weight;
+    private final int[] landmarks;      // landmarks[i] = vertex of the ith landmark
+    private final float[][] tables;     // tables[i][v] = distance from landmarks[i] to v, rounded down
+    private final ShortestPathWorkspace.Pool workspaces;
+    private final ThreadLocal<Bounds> bounds;
+
+    // the landmarks chosen for the current query of one thread, best
+    // first, with their distances to its target and bounds at its source
+    private static class Bounds {
+        final float[][] tables;
+        final float[] toTarget;
+        final double[] atSource;
+        int count;
+
+        Bounds(int n) {
+            tables = new float[n][];
+            toTarget = new float[n];
+            atSource = new double[n];
+        }
+    }
+
+    /**
+     * Chooses {@code k} landmarks in the graph {@code G} and computes their
+     * distance tables on the common fork/join pool; there are fewer only if
+     * the components with two or more vertices have fewer than {@code k}
+     * vertices in all. The graph must not be modified afterwards.
+     *
+     * @param  G the edge-weighted graph
+     * @param  k the number of landmarks
+     * @throws IllegalArgumentException unless {@code 0 <= k <= V}, or if an
+     *         edge has negative weight
+     */
+    public LandmarkAStar(CsrEdgeWeightedGraph G, int k) {
+        this(G, k, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Chooses {@code k} landmarks in a copy of the graph {@code G} and
+     * computes their distance tables on the common fork/join pool; there are
+     * fewer only if the components with two or more vertices have fewer than
+     * {@code k} vertices in all.
+     *
+     * @param  G the edge-weighted graph
+     * @param  k the number of landmarks
+     * @throws IllegalArgumentException unless {@code 0 <= k <= V}, or if an
+     *         edge has negative weight
+     */
+    public LandmarkAStar(EdgeWeightedGraph G, int k) {
+        this(new CsrEdgeWeightedGraph(G), k);
+    }
+
+    /**
+     * Chooses {@code k} landmarks in the graph {@code G} and computes their
+     * distance tables on the given pool; there are fewer only if the
+     * components with two or more vertices have fewer than {@code k}
+     * vertices in all. The graph must not be modified afterwards.
+     *
+     * @param  G the edge-weighted graph
+     * @param  k the number of landmarks
+     * @param  pool the pool to compute the distance tables on
+     * @throws IllegalArgumentException unless {@code 0 <= k <= V}, or if an
+     *         edge has negative weight
+     */
+    public LandmarkAStar(CsrEdgeWeightedGraph G, int k, ForkJoinPool pool) {
+        this(G, new Selection(G, k, pool));
+    }
+
+    private LandmarkAStar(CsrEdgeWeightedGraph G, Selection selection) {
+        this(G, selection.landmarks, selection.tables);
+    }
+
+    // the landmarks of a graph and their distance tables, chosen by
+    // farthest-point selection within each component
+    private static class Selection {
+        final int[] landmarks;
+        final float[][] tables;
+
+        Selection(CsrEdgeWeightedGraph G, int k, ForkJoinPool pool) {
+            int V = G.V();
+            if (k < 0 || k > V)
+                throw new IllegalArgumentException("Number of landmarks must be between 0 and " + V);
+            ConnectedComponents cc = new ConnectedComponents(new CsrGraph(V, G.fromArray(), G.toArray(), G.E()));
+            int[] quota = quotas(cc, k);
+            int n = 0;
+            for (int c = 0; c < quota.length; c++)
+                n += quota[c];
+            landmarks = new int[n];
+            tables = new float[n][];
+            if (n == 0) return;
+
+            // the vertices of each component, in order, with the components
+            // that get landmarks taken largest first
+            int[] id = cc.componentIds();
+            int[] start = new int[cc.count() + 1];
+            for (int v = 0; v < V; v++)
+                start[id[v] + 1]++;
+            for (int c = 0; c < cc.count(); c++)
+                start[c + 1] += start[c];
+            int[] members = new int[V];
+            int[] next = Arrays.copyOf(start, cc.count());
+            for (int v = 0; v < V; v++)
+                members[next[id[v]]++] = v;
+            Integer[] order = new Integer[cc.count()];
+            for (int c = 0; c < order.length; c++)
+                order[c] = c;
+            final int[] size = cc.componentSizes();
+            Arrays.sort(order, (x, y) -> size[y] - size[x]);
+
+            // farthest[v] = distance from v to the nearest landmark of its
+            // component so far, or from the member the selection started at
+            double delta = DeltaSteppingSP.defaultDelta(G);
+            final float[] farthest = new float[V];
+            int i = 0;
+            for (int c : order) {
+                if (quota[c] == 0) continue;
+                table(G, members[start[c]], delta, pool, farthest);
+                for (int j = 0; j < quota[c]; j++, i++) {
+                    int landmark = members[start[c]];
+                    for (int m = start[c] + 1; m < start[c + 1]; m++)
+                        if (farthest[members[m]] > farthest[landmark]) landmark = members[m];
+                    final float[] table = new float[V];
+                    table(G, landmark, delta, pool, table);
+                    landmarks[i] = landmark;
+                    tables[i] = table;
+                    final boolean first = j == 0;
+                    ParallelFor.run(pool, 0, V, (lo, hi) -> {
+                        for (int v = lo; v < hi; v++)
+                            if (first || table[v] < farthest[v]) farthest[v] = table[v];
+                    });
+                }
+            }
+        }
+
+        // the number of landmarks for each component: k shared out among
+        // the components with two or more vertices in proportion to their
+        // sizes, the remainder going one at a time to the largest ones,
+        // and never more than a component has vertices
+        private static int[] quotas(ConnectedComponents cc, int k) {
+            int[] size = cc.componentSizes();
+            int[] quota = new int[size.length];
+            long total = 0;
+            for (int c = 0; c < size.length; c++)
+                if (size[c] >= 2) total += size[c];
+            if (total == 0) return quota;
+            int left = k;
+            for (int c = 0; c < size.length; c++) {
+                if (size[c] < 2) continue;
+                quota[c] = (int) Math.min(size[c], k * (long) size[c] / total);
+                left -= quota[c];
+            }
+            Integer[] order = new Integer[size.length];
+            for (int c = 0; c < order.length; c++)
+                order[c] = c;
+            Arrays.sort(order, (x, y) -> size[y] - size[x]);
+            boolean room = true;
+            while (left > 0 && room) {
+                room = false;
+                for (int c : order) {
+                    if (size[c] < 2 || left == 0) break;
+                    if (quota[c] == size[c]) continue;
+                    quota[c]++;
+                    left--;
+                    room = true;
+                }
+            }
+            return quota;
+        }
+    }
+
+    private LandmarkAStar(CsrEdgeWeightedGraph G, int[] landmarks, float[][] tables) {
+        this.G = G;
+        this.offsets = G.offsetsArray();
+        this.incident = G.incidentArray();
+        this.from = G.fromArray();
+        this.to = G.toArray();
+        this.weight = G.weightArray();
+        this.landmarks = landmarks;
+        this.tables = tables;
+        this.workspaces = new ShortestPathWorkspace.Pool(G.V());
+        final int active = Math.min(ACTIVE, landmarks.length);
+        this.bounds = new ThreadLocal<Bounds>() {
+            protected Bounds initialValue() {
+                return new Bounds(active);
+            }
+        };
+    }
+
+    // writes the distances from s, rounded down to floats, into table
+    private static void table(CsrEdgeWeightedGraph G, int s, double delta, ForkJoinPool pool,
+                              final float[] table) {
+        final DeltaSteppingSP sp = new DeltaSteppingSP(G, s, delta, pool);
+        ParallelFor.run(pool, 0, G.V(), (lo, hi) -> {
+            for (int v = lo; v < hi; v++) {
+                double d = sp.distTo(v);
+                float f = (float) d;
+                table[v] = f > d ? Math.nextDown(f) : f;
+            }
+        });
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph
+     */
+    public int V() {
+        return G.V();
+    }
+
+    /**
+     * Returns the number of landmarks.
+     *
+     * @return the number of landmarks
+     */
+    public int landmarks() {
+        return landmarks.length;
+    }
+
+    /**
+     * Returns the {@code i}th landmark, in the order they were chosen.
+     *
+     * @param  i the index of the landmark
+     * @return the vertex of the {@code i}th landmark
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < landmarks()}
+     */
+    public int landmark(int i) {
+        if (i < 0 || i >= landmarks.length)
+            throw new IndexOutOfBoundsException("landmark " + i + " is not between 0 and " + (landmarks.length - 1));
+        return landmarks[i];
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the length of a shortest path from {@code s} to {@code t}, or
+     *         {@code Double.POSITIVE_INFINITY} if there is none
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if a reached edge has negative weight
+     */
+    public double distance(int s, int t) {
+        ShortestPathWorkspace ws = workspaces.get();
+        return search(s, t, ws) ? ws.dist[t] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns a shortest path from {@code s} to {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the vertices on a shortest path from {@code s} to {@code t},
+     *         in order, or {@code null} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if a reached edge has negative weight
+     */
+    public int[] path(int s, int t) {
+        ShortestPathWorkspace ws = workspaces.get();
+        return search(s, t, ws) ? ws.pathTo(t) : null;
+    }
+
+    // A* from s to t; returns whether t was reached
+    private boolean search(int s, int t, ShortestPathWorkspace ws) {
+        int V = G.V();
+        if (t < 0 || t >= V)
+            throw new IndexOutOfBoundsException("vertex " + t + " is not between 0 and " + (V - 1));
+        DijkstraSP.start(V, s, ws);
+        Bounds b = choose(s, t);
+        if (bound(b, s) == Double.POSITIVE_INFINITY) return false;
+        int[] seen = ws.seen;
+        int[] done = ws.done;
+        double[] dist = ws.dist;
+        int[] parent = ws.parent;
+        IndexDaryMinPQ pq = ws.pq;
+        int epoch = ws.epoch();
+
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            done[v] = epoch;
+            if (v == t) return true;
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int e = incident[i];
+                int w = from[e] == v ? to[e] : from[e];
+                if (weight[e] < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+                double d = dist[v] + weight[e];
+                if (seen[w] == epoch) {
+                    if (d >= dist[w]) continue;
+                    dist[w] = d;
+                    parent[w] = v;
+                    double key = d + bound(b, w);
+                    if (pq.contains(w)) pq.decreaseKey(w, key);
+                    else                pq.insert(w, key);     // reopened
+                }
+                else {
+                    double h = bound(b, w);
+                    if (h == Double.POSITIVE_INFINITY) continue;    // cannot reach t
+                    seen[w] = epoch;
+                    dist[w] = d;
+                    parent[w] = v;
+                    pq.insert(w, d + h);
+                }
+            }
+        }
+        return false;
+    }
+
+    // the calling thread's bounds, set to the landmarks that give the
+    // largest lower bounds on the distance from s to t
+    private Bounds choose(int s, int t) {
+        Bounds b = bounds.get();
+        b.count = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double h = bound(tables[i][s], tables[i][t]);
+            int j = b.count;
+            if (j == b.tables.length) {
+                if (h <= b.atSource[j - 1]) continue;
+                j--;
+            }
+            else b.count++;
+            for (; j > 0 && b.atSource[j - 1] < h; j--) {
+                b.tables[j] = b.tables[j - 1];
+                b.toTarget[j] = b.toTarget[j - 1];
+                b.atSource[j] = b.atSource[j - 1];
+            }
+            b.tables[j] = tables[i];
+            b.toTarget[j] = tables[i][t];
+            b.atSource[j] = h;
+        }
+        return b;
+    }
+
+    // a lower bound on the distance from v to the target of b
+    private static double bound(Bounds b, int v) {
+        double h = 0.0;
+        for (int i = 0; i < b.count; i++)
+            h = Math.max(h, bound(b.tables[i][v], b.toTarget[i]));
+        return h;
+    }
+
+    // a lower bound on the distance between two vertices at rounded-down
+    // distances x and y from the same landmark; infinite if exactly one of
+    // them is reachable from it
+    private static double bound(float x, float y) {
+        if (x == y) return 0.0;
+        if (x == Float.POSITIVE_INFINITY || y == Float.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+        return Math.max(0.0, Math.max((double) y - Math.nextUp(x), (double) x - Math.nextUp(y)));
+    }
+
+    /**
+     * Writes the landmarks and their distance tables to the file
+     * {@code filename} in a compact binary format.
+     *
+     * @param  filename the name of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(String filename) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(G.V());
+            out.writeInt(G.E());
+            out.writeInt(landmarks.length);
+            for (int i = 0; i < landmarks.length; i++) {
+                out.writeInt(landmarks[i]);
+                for (int v = 0; v < G.V(); v++)
+                    out.writeFloat(tables[i][v]);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads landmarks written by {@link #save(String)} from the file
+     * {@code filename}, to answer queries on the graph {@code G} they were
+     * computed for.
+     *
+     * @param  G the edge-weighted graph
+     * @param  filename the name of the file
+     * @return the landmark A* search over {@code G}
+     * @throws IOException if the file cannot be read, is not in the format
+     *         written by {@code save}, or was written for a graph with a
+     *         different number of vertices or edges
+     */
+    public static LandmarkAStar load(CsrEdgeWeightedGraph G, String filename) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)));
+        try {
+            if (in.readInt() != MAGIC) throw new IOException(filename + " is not a landmark file");
+            int V = in.readInt();
+            int E = in.readInt();
+            if (V != G.V() || E != G.E())
+                throw new IOException(filename + " was computed for a graph with " + V + " vertices and " + E + " edges");
+            int k = in.readInt();
+            if (k < 0 || k > V) throw new IOException(filename + " has " + k + " landmarks");
+            int[] landmarks = new int[k];
+            float[][] tables = new float[k][V];
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = in.readInt();
+                if (landmarks[i] < 0 || landmarks[i] >= V)
+                    throw new IOException(filename + " has landmark " + landmarks[i] + " out of range");
+                for (int v = 0; v < V; v++)
+                    tables[i][v] = in.readFloat();
+            }
+            return new LandmarkAStar(G, landmarks, tables);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads landmarks written by {@link #save(String)} from the file
+     * {@code filename}, to answer queries on a copy of the graph {@code G}
+     * they were computed for.
+     *
+     * @param  G the edge-weighted graph
+     * @param  filename the name of the file
+     * @return the landmark A* search over a copy of {@code G}
+     * @throws IOException if the file cannot be read, is not in the format
+     *         written by {@code save}, or was written for a graph with a
+     *         different number of vertices or edges
+     */
+    public static LandmarkAStar load(EdgeWeightedGraph G, String filename) throws IOException {
+        return load(new CsrEdgeWeightedGraph(G), filename);
+    }
+
+    /**
+     * Unit tests the {@code LandmarkAStar} data type, comparing it with
+     * {@link DijkstraSP} on random queries.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) throws IOException {
+        In in = new In(args[0]);
+        CsrEdgeWeightedGraph G = new CsrEdgeWeightedGraph(in);
+        int s = Integer.parseInt(args[1]);
+        int t = Integer.parseInt(args[2]);
+        int V = G.V();
+        int k = args.length > 3 ? Integer.parseInt(args[3]) : Math.min(16, V);
+
+        long start = System.nanoTime();
+        LandmarkAStar alt = new LandmarkAStar(G, k);
+        long preprocessing = System.nanoTime() - start;
+        StdOut.printf("%d landmarks in %.1f ms:", alt.landmarks(), preprocessing / 1e6);
+        for (int i = 0; i < alt.landmarks(); i++)
+            StdOut.print(" " + alt.landmark(i));
+        StdOut.println();
+
+        int[] path = alt.path(s, t);
+        if (path == null) {
+            StdOut.printf("%d to %d (-):  not connected%n", s, t);
+        }
+        else {
+            StdOut.printf("%d to %d (%.2f):  ", s, t, alt.distance(s, t));
+            for (int i = 0; i < path.length; i++) {
+                if (i == 0) StdOut.print(path[i]);
+                else        StdOut.print("-" + path[i]);
+            }
+            StdOut.println();
+        }
+
+        // the same random pairs with Dijkstra's algorithm and with A*
+        int queries = 1000;
+        int[] a = new int[queries];
+        int[] b = new int[queries];
+        Random random = new Random(0);
+        for (int q = 0; q < queries; q++) {
+            a[q] = random.nextInt(V);
+            b[q] = random.nextInt(V);
+        }
+        ShortestPathWorkspace ws = new ShortestPathWorkspace(V);
+        boolean agree = true;
+        for (int q = 0; q < queries; q++) {
+            double expected = DijkstraSP.distance(G, a[q], b[q], ws);
+            double d = alt.distance(a[q], b[q]);
+            agree &= d == expected || Math.abs(d - expected) <= 1e-9 * expected;
+        }
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++)
+            DijkstraSP.distance(G, a[q], b[q], ws);
+        long dijkstra = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++)
+            alt.distance(a[q], b[q]);
+        long astar = System.nanoTime() - start;
+
+        StdOut.println(queries + " queries agree with DijkstraSP: " + agree);
+        StdOut.printf("dijkstra:       %8.1f us/query%n", dijkstra / 1e3 / queries);
+        StdOut.printf("landmark A*:    %8.1f us/query%n", astar / 1e3 / queries);
+
+        // saved tables answer the same queries
+        File file = File.createTempFile("landmarks", ".alt");
+        file.deleteOnExit();
+        alt.save(file.getPath());
+        LandmarkAStar loaded = load(G, file.getPath());
+        boolean same = true;
+        for (int q = 0; q < queries; q++)
+            same &= loaded.distance(a[q], b[q]) == alt.distance(a[q], b[q]);
+        StdOut.println("saved and reloaded: " + same);
+    }
+}
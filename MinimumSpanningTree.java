@@ -0,0 +1,134 @@
+/******************************************************************************
+ *  Compilation:  javac MinimumSpanningTree.java
+ *  Dependencies: Edge.java Bag.java
+ *
+ *  The result of a minimum spanning tree (or forest) computation.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code MinimumSpanningTree} class represents the edges of a minimum
+ *  spanning tree (or forest) together with their total weight. It is the
+ *  common result type of the MST algorithms in this project, so that their
+ *  outputs can be compared directly.
+ *  <p>
+ *  The edges are stored in parallel primitive arrays in the order in which
+ *  the algorithm accepted them; {@link Edge} objects are only created by
+ *  {@link #edges()}.
+ */
+public class MinimumSpanningTree {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int[] either;      // either[i] = one endpoint of the ith edge
+    private final int[] other;       // other[i] = the other endpoint of the ith edge
+    private final double[] weights;  // weights[i] = weight of the ith edge
+    private int n;                   // number of edges
+    private double weight;           // total weight
+
+    /**
+     * Initializes an empty spanning tree with room for {@code capacity} edges.
+     *
+     * @param capacity the maximum number of edges
+     */
+    MinimumSpanningTree(int capacity) {
+        either = new int[capacity];
+        other = new int[capacity];
+        weights = new double[capacity];
+    }
+
+    // adds the edge v-w to the tree
+    void add(int v, int w, double weight) {
+        either[n] = v;
+        other[n] = w;
+        weights[n] = weight;
+        n++;
+        this.weight += weight;
+    }
+
+    /**
+     * Returns the number of edges in the minimum spanning tree (or forest).
+     *
+     * @return the number of edges in the minimum spanning tree (or forest)
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the sum of the edge weights in the minimum spanning tree (or forest).
+     *
+     * @return the sum of the edge weights in the minimum spanning tree (or forest)
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= i < n}
+    private void validateIndex(int i) {
+        if (i < 0 || i >= n)
+            throw new IndexOutOfBoundsException("index " + i + " is not between 0 and " + (n - 1));
+    }
+
+    /**
+     * Returns one endpoint of the {@code i}th edge.
+     *
+     * @param  i the index of the edge
+     * @return one endpoint of the {@code i}th edge
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < size()}
+     */
+    public int either(int i) {
+        validateIndex(i);
+        return either[i];
+    }
+
+    /**
+     * Returns the other endpoint of the {@code i}th edge.
+     *
+     * @param  i the index of the edge
+     * @return the endpoint of the {@code i}th edge not returned by {@link #either(int)}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < size()}
+     */
+    public int other(int i) {
+        validateIndex(i);
+        return other[i];
+    }
+
+    /**
+     * Returns the weight of the {@code i}th edge.
+     *
+     * @param  i the index of the edge
+     * @return the weight of the {@code i}th edge
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < size()}
+     */
+    public double edgeWeight(int i) {
+        validateIndex(i);
+        return weights[i];
+    }
+
+    /**
+     * Returns the edges in the minimum spanning tree (or forest) as newly
+     * allocated {@link Edge} objects.
+     *
+     * @return the edges in the minimum spanning tree (or forest) as an iterable of edges
+     */
+    public Iterable<Edge> edges() {
+        Bag<Edge> list = new Bag<Edge>();
+        for (int i = n - 1; i >= 0; i--)
+            list.add(new Edge(either[i], other[i], weights[i]));
+        return list;
+    }
+
+    /**
+     * Returns a string representation of the minimum spanning tree: one edge
+     * per line, in the order accepted, followed by the total weight.
+     *
+     * @return a string representation of the minimum spanning tree
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < n; i++)
+            s.append(String.format("%d-%d %.5f", either[i], other[i], weights[i]) + NEWLINE);
+        s.append(String.format("%.5f", weight));
+        return s.toString();
+    }
+}
@@ -0,0 +1,177 @@
+/******************************************************************************
+ *  Compilation:  javac MultiSourceBFS.java
+ *  Execution:    java MultiSourceBFS filename.txt s1 s2 ...
+ *  Dependencies: CsrGraph.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
+ *
+ *  Run many breadth-first searches at once, sharing each adjacency scan
+ *  between up to 64 of them.
+ *
+ *  % java MultiSourceBFS tinyG.txt 0 4 9
+ *  0: 0 1 1 2 2 1 1 - - - - - -
+ *  4: - - - 1 0 - - - - - - - -
+ *  9: - - - - - - - - - 0 1 1 1
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code MultiSourceBFS} class runs a batch of breadth-first searches
+ *  from different source vertices of the same {@link CsrGraph} together.
+ *  <p>
+ *  This implementation follows MS-BFS (Then et al., 2014). Up to 64 searches
+ *  share a batch, and each vertex holds one {@code long} whose bit
+ *  <em>i</em> records whether search <em>i</em> has seen it, plus one for
+ *  the searches whose frontier it is on. Each level scans the adjacency
+ *  lists of the frontier vertices once for the whole batch and propagates
+ *  all 64 frontiers with a handful of bitwise operations per edge. When the
+ *  searches overlap, as they do on small-world graphs, a batch costs little
+ *  more than a single search. Larger requests are split into batches of 64.
+ *  <p>
+ *  The extra space is three {@code long}s per vertex, plus the output
+ *  arrays if {@link #distances(CsrGraph, int[])} is used.
+ */
+public class MultiSourceBFS {
+    /** The maximum number of searches in one batch. */
+    public static final int BATCH = 64;
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * Receives the vertices reached by a batch of searches.
+     */
+    public interface Visitor {
+        /**
+         * Called once per vertex and level, when the vertex {@code v} is
+         * reached at distance {@code depth} by the searches whose bits are
+         * set in {@code sources}; bit <em>i</em> stands for the <em>i</em>th
+         * source of the batch.
+         */
+        void reached(int v, long sources, int depth);
+    }
+
+    // this class should not be instantiated
+    private MultiSourceBFS() { }
+
+    /**
+     * Runs a breadth-first search from each of the given sources of the
+     * graph {@code G} as a single batch.
+     *
+     * @param  G the graph
+     * @param  sources the source vertices, at most {@link #BATCH} of them
+     * @param  visitor the visitor to notify
+     * @throws IllegalArgumentException if there are more than {@link #BATCH} sources
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} for every source {@code s}
+     */
+    public static void search(CsrGraph G, int[] sources, Visitor visitor) {
+        if (sources.length > BATCH)
+            throw new IllegalArgumentException("At most " + BATCH + " sources per batch");
+        int V = G.V();
+        search(G, sources, 0, sources.length, visitor, new long[V], new long[V], new long[V]);
+    }
+
+    // searches from sources[lo..hi) using the given scratch arrays, which
+    // must be all zero
+    private static void search(CsrGraph G, int[] sources, int lo, int hi, Visitor visitor,
+                               long[] seen, long[] visit, long[] visitNext) {
+        int V = G.V();
+        int[] offsets = G.offsets();
+        int[] targets = G.targets();
+        for (int i = lo; i < hi; i++) {
+            int s = sources[i];
+            if (s < 0 || s >= V)
+                throw new IndexOutOfBoundsException("vertex " + s + " is not between 0 and " + (V - 1));
+            long bit = 1L << (i - lo);
+            seen[s] |= bit;
+            visit[s] |= bit;
+        }
+        for (int v = 0; v < V; v++)
+            if (visit[v] != 0) visitor.reached(v, visit[v], 0);
+
+        for (int depth = 1; ; depth++) {
+            // push every frontier along every edge leaving it
+            boolean active = false;
+            for (int v = 0; v < V; v++) {
+                long frontier = visit[v];
+                if (frontier == 0) continue;
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    int w = targets[i];
+                    long d = frontier & ~seen[w];
+                    if (d != 0) {
+                        visitNext[w] |= d;
+                        active = true;
+                    }
+                }
+            }
+            if (!active) break;
+
+            // the new frontiers are the searches that reached each vertex
+            for (int v = 0; v < V; v++) {
+                long next = visitNext[v];
+                visit[v] = next;
+                if (next == 0) continue;
+                visitNext[v] = 0;
+                seen[v] |= next;
+                visitor.reached(v, next, depth);
+            }
+        }
+        Arrays.fill(seen, 0L);
+        Arrays.fill(visit, 0L);
+    }
+
+    /**
+     * Returns the number of edges on a shortest path from each source to
+     * every vertex of the graph {@code G}. Any number of sources may be
+     * given; they are searched in batches of {@link #BATCH}.
+     *
+     * @param  G the graph
+     * @param  sources the source vertices
+     * @return an array whose entry {@code [i][v]} is the number of edges on a
+     *         shortest path from {@code sources[i]} to {@code v}, or
+     *         {@code Integer.MAX_VALUE} if there is no such path
+     * @throws IndexOutOfBoundsException unless {@code 0 <= s < V} for every source {@code s}
+     */
+    public static int[][] distances(CsrGraph G, int[] sources) {
+        int V = G.V();
+        final int[][] dist = new int[sources.length][V];
+        for (int[] row : dist)
+            Arrays.fill(row, INFINITY);
+        long[] seen = new long[V];
+        long[] visit = new long[V];
+        long[] visitNext = new long[V];
+        for (int lo = 0; lo < sources.length; lo += BATCH) {
+            final int base = lo;
+            int hi = Math.min(lo + BATCH, sources.length);
+            search(G, sources, lo, hi, new Visitor() {
+                public void reached(int v, long bits, int depth) {
+                    while (bits != 0) {
+                        dist[base + Long.numberOfTrailingZeros(bits)][v] = depth;
+                        bits &= bits - 1;
+                    }
+                }
+            }, seen, visit, visitNext);
+        }
+        return dist;
+    }
+
+    /**
+     * Unit tests the {@code MultiSourceBFS} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        int[] sources = new int[args.length - 1];
+        for (int i = 0; i < sources.length; i++)
+            sources[i] = Integer.parseInt(args[i + 1]);
+        int[][] dist = distances(G, sources);
+        for (int i = 0; i < sources.length; i++) {
+            StringBuilder s = new StringBuilder(sources[i] + ":");
+            for (int v = 0; v < G.V(); v++)
+                s.append(dist[i][v] == INFINITY ? " -" : " " + dist[i][v]);
+            StdOut.println(s);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/******************************************************************************
+ *  Compilation:  javac NumberReader.java
+ *
+ *  The numeric reads shared by In and FastIn, so that the graph
+ *  constructors parse their input format in one place.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code NumberReader} interface reads the next whitespace-separated
+ *  token of an input stream as a number. It is implemented by {@link In}
+ *  and {@link FastIn}, and lets a graph class read its file format with
+ *  one private method whichever of the two its public constructors are
+ *  given.
+ */
+interface NumberReader {
+
+    /**
+     * Reads and returns the next token as an {@code int}.
+     *
+     * @return the next {@code int}
+     */
+    int readInt();
+
+    /**
+     * Reads and returns the next token as a {@code double}.
+     *
+     * @return the next {@code double}
+     */
+    double readDouble();
+}
@@ -0,0 +1,150 @@
+/******************************************************************************
+ *  Compilation:  javac ParallelConnectedComponents.java
+ *  Execution:    java ParallelConnectedComponents filename.txt
+ *  Dependencies: CsrGraph.java ConcurrentDisjointSet.java
+ *                ConnectedComponents.java ParallelFor.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/mediumG.txt
+ *
+ *  Label the connected components of a graph in parallel with the
+ *  Afforest algorithm.
+ *
+ *  % java ParallelConnectedComponents tinyG.txt
+ *  3 components
+ *  same labeling as ConnectedComponents: true
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ *  The {@code ParallelConnectedComponents} class labels the connected
+ *  components of a graph using all the worker threads of a
+ *  {@link ForkJoinPool}. It returns the same canonical
+ *  {@link ConnectedComponents} labeling as the sequential algorithm, and,
+ *  like it, follows edges in both directions.
+ *  <p>
+ *  This implementation uses Afforest (Sutton, Ben-Nun and Barak, 2018)
+ *  over a {@link ConcurrentDisjointSet}. First every vertex is linked to
+ *  its first two neighbors, which is usually enough to assemble most of a
+ *  large graph into one giant component. Then the root of that component is
+ *  estimated by sampling, and only the vertices outside it process the rest
+ *  of their edges, in both directions; edges between two vertices of the
+ *  giant component cannot change the partition and are never touched. On
+ *  graphs with a giant component this skips most of the edges, and every
+ *  phase is a parallel loop over the vertices.
+ */
+public class ParallelConnectedComponents {
+    private static final int NEIGHBOR_ROUNDS = 2;
+    private static final int SAMPLES = 1024;
+
+    // this class should not be instantiated
+    private ParallelConnectedComponents() { }
+
+    /**
+     * Computes the connected components of the graph {@code G} on the common
+     * fork/join pool.
+     *
+     * @param  G the graph
+     * @return the connected components of {@code G}
+     */
+    public static ConnectedComponents compute(CsrGraph G) {
+        return compute(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the connected components of the graph {@code G} on the given
+     * pool.
+     *
+     * @param  G the graph
+     * @param  pool the pool to run on
+     * @return the connected components of {@code G}
+     */
+    public static ConnectedComponents compute(CsrGraph G, ForkJoinPool pool) {
+        return compute(G, G.reverse(), pool);
+    }
+
+    /**
+     * Computes the connected components of the graph {@code G}, whose
+     * reverse {@code R} has already been built, on the given pool.
+     *
+     * @param  G the graph
+     * @param  R the reverse of {@code G}, as returned by {@link CsrGraph#reverse()}
+     * @param  pool the pool to run on
+     * @return the connected components of {@code G}
+     * @throws IllegalArgumentException if {@code G} and {@code R} do not
+     *         have the same number of vertices
+     */
+    public static ConnectedComponents compute(CsrGraph G, CsrGraph R, ForkJoinPool pool) {
+        final int V = G.V();
+        if (R.V() != V) throw new IllegalArgumentException("Reverse graph has a different number of vertices");
+        final int[] offsets = G.offsets();
+        final int[] targets = G.targets();
+        final int[] rOffsets = R.offsets();
+        final int[] rTargets = R.targets();
+        final ConcurrentDisjointSet uf = new ConcurrentDisjointSet(V);
+
+        // link each vertex to its first few neighbors
+        ParallelFor.run(pool, 0, V, (lo, hi) -> {
+            for (int v = lo; v < hi; v++) {
+                int end = Math.min(offsets[v] + NEIGHBOR_ROUNDS, offsets[v + 1]);
+                for (int i = offsets[v]; i < end; i++)
+                    uf.union(v, targets[i]);
+            }
+        });
+
+        // finish the remaining edges of every vertex outside the giant component
+        final int giant = sampleFrequentRoot(uf, V);
+        ParallelFor.run(pool, 0, V, (lo, hi) -> {
+            for (int v = lo; v < hi; v++) {
+                if (uf.find(v) == giant) continue;
+                for (int i = offsets[v] + NEIGHBOR_ROUNDS; i < offsets[v + 1]; i++)
+                    uf.union(v, targets[i]);
+                for (int i = rOffsets[v]; i < rOffsets[v + 1]; i++)
+                    uf.union(v, rTargets[i]);
+            }
+        });
+
+        final int[] label = new int[V];
+        ParallelFor.run(pool, 0, V, (lo, hi) -> {
+            for (int v = lo; v < hi; v++)
+                label[v] = uf.find(v);
+        });
+        return new ConnectedComponents(label);
+    }
+
+    // returns the root that the most sampled vertices belong to, or -1 if
+    // the graph is empty
+    private static int sampleFrequentRoot(ConcurrentDisjointSet uf, int V) {
+        if (V == 0) return -1;
+        int[] roots = new int[SAMPLES];
+        Random random = new Random(V);
+        for (int i = 0; i < SAMPLES; i++)
+            roots[i] = uf.find(random.nextInt(V));
+        Arrays.sort(roots);
+        int best = roots[0], bestRun = 0;
+        for (int i = 0, j; i < SAMPLES; i = j) {
+            for (j = i; j < SAMPLES && roots[j] == roots[i]; j++) { }
+            if (j - i > bestRun) {
+                best = roots[i];
+                bestRun = j - i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Unit tests the {@code ParallelConnectedComponents} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        ConnectedComponents cc = ParallelConnectedComponents.compute(G);
+        StdOut.println(cc.count() + " components");
+        boolean same = Arrays.equals(cc.componentIds(), new ConnectedComponents(G).componentIds());
+        StdOut.println("same labeling as ConnectedComponents: " + same);
+    }
+}
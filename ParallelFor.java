@@ -0,0 +1,104 @@
+/******************************************************************************
+ *  Compilation:  javac ParallelFor.java
+ *
+ *  Fork/join parallel loop over an index range.
+ *
+ ******************************************************************************/
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  The {@code ParallelFor} class runs a loop body over an index range on a
+ *  {@link ForkJoinPool}. The range is split in half recursively until the
+ *  pieces are no larger than the grain size, and each piece is handed to the
+ *  body as a half-open range {@code [lo, hi)}, so the body can keep its own
+ *  tight inner loop and per-piece locals.
+ *  <p>
+ *  This is the building block for the parallel graph algorithms in this
+ *  project; the call returns when every piece has completed, and all
+ *  writes made by the body happen-before the return.
+ */
+public final class ParallelFor {
+
+    /**
+     * The loop body: processes the indices {@code lo} (inclusive) through
+     * {@code hi} (exclusive).
+     */
+    public interface Body {
+        void apply(int lo, int hi);
+    }
+
+    // this class should not be instantiated
+    private ParallelFor() { }
+
+    /**
+     * Returns a grain size that splits {@code n} indices into about eight
+     * pieces per worker thread of {@code pool}, but no pieces smaller than
+     * {@code min}.
+     *
+     * @param  pool the pool that will run the loop
+     * @param  n the number of indices
+     * @param  min the minimum grain size
+     * @return the grain size
+     */
+    public static int grain(ForkJoinPool pool, int n, int min) {
+        return Math.max(min, n / (8 * pool.getParallelism()));
+    }
+
+    /**
+     * Runs {@code body} over the indices {@code lo} through {@code hi - 1}
+     * on {@code pool}, in pieces of at most {@code grain} indices.
+     *
+     * @param  pool the pool to run on
+     * @param  lo the first index
+     * @param  hi one past the last index
+     * @param  grain the maximum number of indices per piece
+     * @param  body the loop body
+     * @throws IllegalArgumentException if {@code grain < 1}
+     */
+    public static void run(ForkJoinPool pool, int lo, int hi, int grain, Body body) {
+        if (grain < 1) throw new IllegalArgumentException("Grain size must be positive");
+        if (hi - lo <= grain) {
+            body.apply(lo, hi);
+            return;
+        }
+        pool.invoke(new Task(lo, hi, grain, body));
+    }
+
+    /**
+     * Runs {@code body} over the indices {@code lo} through {@code hi - 1}
+     * on {@code pool}, with a grain size of at least 1024 indices.
+     *
+     * @param  pool the pool to run on
+     * @param  lo the first index
+     * @param  hi one past the last index
+     * @param  body the loop body
+     */
+    public static void run(ForkJoinPool pool, int lo, int hi, Body body) {
+        run(pool, lo, hi, grain(pool, hi - lo, 1024), body);
+    }
+
+    private static class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi, grain;
+        private final Body body;
+
+        Task(int lo, int hi, int grain, Body body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        protected void compute() {
+            if (hi - lo <= grain) {
+                body.apply(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Task(lo, mid, grain, body), new Task(mid, hi, grain, body));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/******************************************************************************
+ *  Compilation:  javac PrimMST.java
+ *  Execution:    java PrimMST filename.txt
+ *  Dependencies: EdgeWeightedGraph.java Edge.java IndexDaryMinPQ.java
+ *                MinimumSpanningTree.java KruskalMST.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  Compute a minimum spanning forest using the eager version of Prim's
+ *  algorithm.
+ *
+ *  % java PrimMST krusGraph.txt
+ *  0-7 0.16000
+ *  1-7 0.19000
+ *  0-2 0.26000
+ *  2-3 0.17000
+ *  1-5 0.32000
+ *  0-4 0.38000
+ *  6-2 0.40000
+ *  1.88000
+ *  kruskal: 1.88000
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code PrimMST} class computes a minimum spanning tree (or forest) of
+ *  an edge-weighted graph with the eager version of Prim's algorithm.
+ *  <p>
+ *  Each vertex not yet in the tree is kept on an {@link IndexDaryMinPQ}
+ *  keyed by the weight of the lightest edge connecting it to the tree, and
+ *  that key is lowered in place when a lighter edge is found. The keys are
+ *  primitive {@code double}s and the crossing edges are kept in a
+ *  vertex-indexed array, so relaxing an edge never allocates. The running
+ *  time is proportional to <em>E</em> log<sub><em>d</em></sub> <em>V</em>
+ *  + <em>V d</em> log<sub><em>d</em></sub> <em>V</em>, which beats the
+ *  <em>E</em> log <em>E</em> sort of {@link KruskalMST} on dense graphs; the
+ *  extra space is proportional to <em>V</em>.
+ */
+public class PrimMST {
+
+    // this class should not be instantiated
+    private PrimMST() { }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G}, using a 4-ary heap.
+     *
+     * @param  G the edge-weighted graph
+     * @return a minimum spanning tree (or forest) of {@code G}
+     */
+    public static MinimumSpanningTree mst(EdgeWeightedGraph G) {
+        return mst(G, 4);
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the edge-weighted graph
+     * {@code G}, using a {@code d}-ary heap.
+     *
+     * @param  G the edge-weighted graph
+     * @param  d the arity of the heap
+     * @return a minimum spanning tree (or forest) of {@code G}
+     * @throws IllegalArgumentException if {@code d < 2}
+     */
+    public static MinimumSpanningTree mst(EdgeWeightedGraph G, int d) {
+        int V = G.V();
+        Edge[] edgeTo = new Edge[V];         // edgeTo[v] = lightest edge from v to the tree
+        boolean[] marked = new boolean[V];   // marked[v] = true if v on tree
+        IndexDaryMinPQ pq = new IndexDaryMinPQ(V, d);
+        MinimumSpanningTree mst = new MinimumSpanningTree(Math.max(V - 1, 0));
+
+        // run from each vertex to find minimum spanning forest
+        for (int s = 0; s < V; s++) {
+            if (marked[s]) continue;
+            pq.insert(s, 0.0);
+            while (!pq.isEmpty()) {
+                int v = pq.delMin();
+                marked[v] = true;
+                Edge e = edgeTo[v];
+                if (e != null) mst.add(e.either(), e.other(e.either()), e.weight());
+                for (Edge f : G.adj(v)) {
+                    int w = f.other(v);
+                    if (marked[w]) continue;
+                    if (pq.insertOrDecrease(w, f.weight()))
+                        edgeTo[w] = f;
+                }
+            }
+        }
+        return mst;
+    }
+
+    /**
+     * Unit tests the {@code PrimMST} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedGraph G = new EdgeWeightedGraph(in);
+        MinimumSpanningTree mst = PrimMST.mst(G);
+        StdOut.println(mst);
+        StdOut.printf("kruskal: %.5f%n", KruskalMST.mst(G).weight());
+    }
+}
@@ -0,0 +1,212 @@
+/******************************************************************************
+ *  Compilation:  javac ShortestPathWorkspace.java
+ *  Dependencies: IndexDaryMinPQ.java
+ *
+ *  Reusable per-query scratch space for shortest-path searches, reset in
+ *  constant time with an epoch stamp.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code ShortestPathWorkspace} class holds what a shortest-path
+ *  search in a graph with <em>V</em> vertices writes: a {@code double[]} of
+ *  distances, an {@code int[]} of parents, reached and settled marks, and
+ *  an {@link IndexDaryMinPQ} of the vertices whose distance is still
+ *  tentative. It plays the same role for {@link DijkstraSP} that
+ *  {@link TraversalWorkspace} plays for breadth-first search: the graph
+ *  stays immutable, and each concurrent query runs in its own workspace.
+ *  <p>
+ *  The marks are epoch stamps, so {@link #reset()} takes constant time plus
+ *  time proportional to the number of vertices left on the priority queue
+ *  by an early exit, rather than time proportional to <em>V</em>.
+ *  Distances and parents are meaningful only for reached vertices. A
+ *  {@link Pool} hands each thread its own workspace, allocated on first
+ *  use. A workspace must not be used by two threads at the same time.
+ */
+public class ShortestPathWorkspace {
+    private final int V;
+    private int epoch;
+
+    // shared with the shortest-path algorithms in this package
+    final int[] seen;           // seen[v] == epoch iff v has been reached
+    final int[] done;           // done[v] == epoch iff dist[v] is final
+    final double[] dist;        // dist[v] = length of shortest known path to v, if reached
+    final int[] parent;         // parent[v] = last vertex on that path, if reached
+    final IndexDaryMinPQ pq;    // reached vertices whose distance is not yet final
+
+    /**
+     * Hands out one {@link ShortestPathWorkspace} per thread for graphs with
+     * a fixed number of vertices.
+     */
+    public static class Pool {
+        private final int V;
+        private final ThreadLocal<ShortestPathWorkspace> local;
+
+        /**
+         * Initializes a pool of workspaces for graphs with {@code V} vertices.
+         *
+         * @param  V the number of vertices
+         * @throws IllegalArgumentException if {@code V < 0}
+         */
+        public Pool(final int V) {
+            if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+            this.V = V;
+            this.local = new ThreadLocal<ShortestPathWorkspace>() {
+                protected ShortestPathWorkspace initialValue() {
+                    return new ShortestPathWorkspace(V);
+                }
+            };
+        }
+
+        /**
+         * Returns the calling thread's workspace, freshly reset.
+         *
+         * @return the calling thread's workspace
+         */
+        public ShortestPathWorkspace get() {
+            ShortestPathWorkspace ws = local.get();
+            ws.reset();
+            return ws;
+        }
+
+        /**
+         * Returns the number of vertices of the workspaces in this pool.
+         *
+         * @return the number of vertices
+         */
+        public int V() {
+            return V;
+        }
+    }
+
+    /**
+     * Initializes a workspace for graphs with {@code V} vertices, with no
+     * vertex reached.
+     *
+     * @param  V the number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public ShortestPathWorkspace(int V) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        this.V = V;
+        seen = new int[V];
+        done = new int[V];
+        dist = new double[V];
+        parent = new int[V];
+        pq = new IndexDaryMinPQ(V);
+        epoch = 1;
+    }
+
+    /**
+     * Returns the number of vertices this workspace is sized for.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Marks every vertex unreached, in constant amortized time plus time
+     * proportional to the number of vertices still on the priority queue.
+     */
+    public void reset() {
+        pq.clear();
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(done, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Returns the current epoch; a vertex {@code v} has been reached since
+     * the last reset if and only if {@code seen[v]} equals it.
+     *
+     * @return the current epoch
+     */
+    int epoch() {
+        return epoch;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Is there a path to vertex {@code v}, as far as the last search found?
+     *
+     * @param  v the vertex
+     * @return {@code true} if {@code v} has been reached; {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return seen[v] == epoch;
+    }
+
+    /**
+     * Is the distance to vertex {@code v} final? After a full search every
+     * reached vertex is settled; after a search that stopped early at a
+     * target, only the target and the vertices closer than it are.
+     *
+     * @param  v the vertex
+     * @return {@code true} if {@code v} has been settled; {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public boolean settled(int v) {
+        validateVertex(v);
+        return done[v] == epoch;
+    }
+
+    /**
+     * Returns the length of the shortest path to vertex {@code v} found by
+     * the last search; it is final if {@link #settled(int)} is true.
+     *
+     * @param  v the vertex
+     * @return the length of the path, or {@code Double.POSITIVE_INFINITY}
+     *         if {@code v} has not been reached
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return seen[v] == epoch ? dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the vertex before {@code v} on the path to {@code v} found by
+     * the last search; a source is its own parent.
+     *
+     * @param  v the vertex
+     * @return the parent of {@code v}, or -1 if {@code v} has not been
+     *         reached
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int parent(int v) {
+        validateVertex(v);
+        return seen[v] == epoch ? parent[v] : -1;
+    }
+
+    /**
+     * Returns the path to vertex {@code v} found by the last search.
+     *
+     * @param  v the vertex
+     * @return the vertices on the path from the source to {@code v}, in
+     *         order, or {@code null} if {@code v} has not been reached
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int[] pathTo(int v) {
+        if (!hasPathTo(v)) return null;
+        int length = 1;
+        for (int x = v; parent[x] != x; x = parent[x])
+            length++;
+        int[] path = new int[length];
+        for (int i = length - 1, x = v; i >= 0; i--, x = parent[x])
+            path[i] = x;
+        return path;
+    }
+}
@@ -0,0 +1,319 @@
+/******************************************************************************
+ *  Compilation:  javac StrongComponents.java
+ *  Execution:    java StrongComponents filename.txt
+ *  Dependencies: CsrGraph.java IntBag.java In.java StdOut.java
+ *  Data files:   http://algs4.cs.princeton.edu/41undirected/tinyG.txt
+ *
+ *  Label the strongly connected components of a digraph with an iterative
+ *  version of Tarjan's algorithm, and build the condensation DAG.
+ *
+ *  % java StrongComponents graph1.txt
+ *  5 strong components
+ *  0 1 3
+ *  2
+ *  4
+ *  5
+ *  6
+ *  condensation: 5 vertices, 4 edges
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code StrongComponents} class labels the strongly connected
+ *  components of a graph read with its edges directed: two vertices are in
+ *  the same component if each can reach the other. Every edge between two
+ *  different components points the same way, so collapsing each component
+ *  to a single vertex gives a directed acyclic graph, the
+ *  {@link #condensation()}.
+ *  <p>
+ *  The components are numbered 0 through <em>count</em> - 1 in increasing
+ *  order of their smallest vertex. As with {@link ConnectedComponents} this
+ *  labeling is canonical, so {@link ParallelStrongComponents} produces the
+ *  same {@link #componentIds()}.
+ *  <p>
+ *  This implementation uses Tarjan's algorithm, with the recursion replaced
+ *  by an explicit call stack of vertices, each with a cursor into the
+ *  packed adjacency array, so the depth of the search is not limited by the
+ *  size of the thread's stack. It takes time proportional to <em>V</em> +
+ *  <em>E</em>. Afterwards the <em>id</em>, <em>size</em>,
+ *  <em>stronglyConnected</em> and <em>count</em> operations take constant
+ *  time.
+ */
+public class StrongComponents {
+    private final CsrGraph G;
+    private final int[] id;     // id[v] = id of strong component containing v
+    private final int[] size;   // size[id] = number of vertices in given component
+    private final int count;    // number of strong components
+
+    /**
+     * Computes the strong components of the graph {@code G}.
+     *
+     * @param  G the graph
+     */
+    public StrongComponents(CsrGraph G) {
+        this(G, tarjan(G));
+    }
+
+    // labels each vertex with the root of its component in the depth-first forest
+    private static int[] tarjan(CsrGraph G) {
+        int V = G.V();
+        int[] pre = new int[V];
+        int[] low = new int[V];
+        int[] label = new int[V];
+        Arrays.fill(pre, -1);
+        Arrays.fill(label, -1);
+        int[] vertices = new int[V];
+        for (int v = 0; v < V; v++)
+            vertices[v] = v;
+        tarjan(G.offsets(), G.targets(), vertices, V, null, 0, pre, low, label);
+        return label;
+    }
+
+    /**
+     * Runs Tarjan's algorithm on the subgraph induced by the first {@code n}
+     * entries of {@code vertices}, which must be exactly the vertices
+     * {@code v} with {@code color[v] == c} (or all vertices, if
+     * {@code color} is {@code null}). Each vertex is labeled with the root
+     * of its component, the first of its vertices to be discovered. The
+     * entries of {@code pre} and {@code label} for these vertices must be
+     * -1 on entry; the arrays are indexed by vertex and may be shared by
+     * calls on disjoint subsets.
+     */
+    static void tarjan(int[] offsets, int[] targets, int[] vertices, int n,
+                       int[] color, int c, int[] pre, int[] low, int[] label) {
+        int[] call = new int[n];     // call stack
+        int[] cursor = new int[n];   // cursor[k] = next edge of call[k]
+        int[] stack = new int[n];    // vertices not yet assigned to a component
+        int counter = 0;
+        int sp = 0;
+        for (int j = 0; j < n; j++) {
+            int s = vertices[j];
+            if (pre[s] != -1) continue;
+            pre[s] = low[s] = counter++;
+            stack[sp++] = s;
+            call[0] = s;
+            cursor[0] = offsets[s];
+            int cp = 1;
+            while (cp > 0) {
+                int v = call[cp - 1];
+                if (cursor[cp - 1] < offsets[v + 1]) {
+                    int w = targets[cursor[cp - 1]++];
+                    if (color != null && color[w] != c) continue;
+                    if (pre[w] == -1) {
+                        pre[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        call[cp] = w;
+                        cursor[cp] = offsets[w];
+                        cp++;
+                    }
+                    else if (label[w] == -1 && pre[w] < low[v]) {
+                        low[v] = pre[w];
+                    }
+                }
+                else {
+                    cp--;
+                    if (low[v] == pre[v]) {
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            label[w] = v;
+                        } while (w != v);
+                    }
+                    if (cp > 0) {
+                        int u = call[cp - 1];
+                        if (low[v] < low[u]) low[u] = low[v];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Initializes the components of {@code G} from an arbitrary labeling,
+     * in which two vertices are in the same component if and only if they
+     * have the same label; the labels are renumbered into the canonical
+     * order.
+     *
+     * @param  G the graph
+     * @param  label label[v] = any int naming the component of v, between
+     *         {@code 0} and {@code V-1}
+     */
+    StrongComponents(CsrGraph G, int[] label) {
+        this.G = G;
+        int V = label.length;
+        int[] rename = new int[V];
+        Arrays.fill(rename, -1);
+        int[] sizes = new int[V];
+        id = new int[V];
+        int n = 0;
+        for (int v = 0; v < V; v++) {
+            int l = label[v];
+            if (rename[l] == -1) rename[l] = n++;
+            id[v] = rename[l];
+            sizes[id[v]]++;
+        }
+        count = n;
+        size = Arrays.copyOf(sizes, n);
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = id.length;
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the component id of the strong component containing vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the component id of the strong component containing vertex {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int id(int v) {
+        validateVertex(v);
+        return id[v];
+    }
+
+    /**
+     * Returns the number of vertices in the strong component containing vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the number of vertices in the strong component containing vertex {@code v}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int size(int v) {
+        validateVertex(v);
+        return size[id[v]];
+    }
+
+    /**
+     * Returns the number of strong components in the graph.
+     *
+     * @return the number of strong components in the graph
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Are vertices {@code v} and {@code w} in the same strong component?
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return {@code true} if each of {@code v} and {@code w} can reach the
+     *         other; {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= w < V}
+     */
+    public boolean stronglyConnected(int v, int w) {
+        return id(v) == id(w);
+    }
+
+    /**
+     * Returns a copy of the component labeling: element <em>v</em> is the id
+     * of the strong component containing vertex <em>v</em>.
+     *
+     * @return the component id of every vertex
+     */
+    public int[] componentIds() {
+        return id.clone();
+    }
+
+    /**
+     * Returns a copy of the component sizes: element <em>i</em> is the number
+     * of vertices in component <em>i</em>.
+     *
+     * @return the size of every component
+     */
+    public int[] componentSizes() {
+        return size.clone();
+    }
+
+    /**
+     * Returns the condensation of the graph: vertex <em>i</em> is component
+     * <em>i</em>, and there is one edge {@code i->j} for each pair of
+     * different components with at least one edge from a vertex of
+     * <em>i</em> to a vertex of <em>j</em>. The condensation is a directed
+     * acyclic graph. Each call builds a new graph in time proportional to
+     * <em>V</em> + <em>E</em>.
+     *
+     * @return the condensation of the graph
+     */
+    public CsrGraph condensation() {
+        int V = id.length;
+        int[] offsets = G.offsets();
+        int[] targets = G.targets();
+
+        // list the vertices component by component
+        int[] start = new int[count + 1];
+        for (int v = 0; v < V; v++)
+            start[id[v] + 1]++;
+        for (int i = 0; i < count; i++)
+            start[i + 1] += start[i];
+        int[] members = new int[V];
+        int[] next = Arrays.copyOf(start, count);
+        for (int v = 0; v < V; v++)
+            members[next[id[v]]++] = v;
+
+        // collect the distinct edges out of each component, using mark[j] == i
+        // to remember that i->j is already present
+        int[] mark = new int[count];
+        Arrays.fill(mark, -1);
+        IntBag from = new IntBag();
+        IntBag to = new IntBag();
+        for (int i = 0; i < count; i++) {
+            for (int k = start[i]; k < start[i + 1]; k++) {
+                int v = members[k];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int j = id[targets[e]];
+                    if (j == i || mark[j] == i) continue;
+                    mark[j] = i;
+                    from.add(i);
+                    to.add(j);
+                }
+            }
+        }
+        int E = from.size();
+        int[] f = new int[E];
+        int[] t = new int[E];
+        from.copyTo(f, 0);
+        to.copyTo(t, 0);
+        return new CsrGraph(count, f, t, E);
+    }
+
+    /**
+     * Unit tests the {@code StrongComponents} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        StrongComponents scc = new StrongComponents(G);
+
+        // number of strong components
+        int m = scc.count();
+        StdOut.println(m + " strong components");
+
+        // compute list of vertices in each strong component
+        IntBag[] components = new IntBag[m];
+        for (int i = 0; i < m; i++) {
+            components[i] = new IntBag();
+        }
+        for (int v = G.V() - 1; v >= 0; v--) {
+            components[scc.id(v)].add(v);
+        }
+
+        // print results
+        for (int i = 0; i < m; i++) {
+            final StringBuilder s = new StringBuilder();
+            components[i].forEach(v -> s.append(v + " "));
+            StdOut.println(s);
+        }
+        CsrGraph C = scc.condensation();
+        StdOut.println("condensation: " + C.V() + " vertices, " + C.E() + " edges");
+    }
+}
@@ -0,0 +1,210 @@
+/******************************************************************************
+ *  Compilation:  javac TopologicalSort.java
+ *  Execution:    java TopologicalSort filename.txt
+ *  Dependencies: CsrGraph.java IntBag.java ParallelFor.java In.java StdOut.java
+ *
+ *  Parallel topological sort of a digraph, grouping the vertices into
+ *  levels by the length of the longest path reaching them.
+ *
+ *  % java TopologicalSort graph3.txt
+ *  level 0: 0 5
+ *  level 1: 6 1
+ *  level 2: 3
+ *  level 3: 2 4
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code TopologicalSort} class computes a topological order of a
+ *  graph read with its edges directed, together with the <em>level</em> of
+ *  each vertex: the number of edges on a longest path from a vertex of
+ *  in-degree zero to it. The vertices of one level have no edges between
+ *  them, so they can be processed concurrently once all lower levels are
+ *  done; {@link DagScheduler} does exactly that.
+ *  <p>
+ *  This implementation runs Kahn's algorithm in parallel on a
+ *  {@link ForkJoinPool}. The in-degrees are held in an
+ *  {@link AtomicIntegerArray}; each round removes the whole frontier of
+ *  in-degree-zero vertices at once, decrementing the in-degrees of their
+ *  successors concurrently and collecting those that reach zero into the
+ *  next frontier. The frontier of round <em>i</em> is exactly level
+ *  <em>i</em>, and the frontiers laid end to end form the topological order.
+ *  If the graph has a directed cycle, the vertices on or after a cycle are
+ *  never removed and {@link #isDAG()} is false. The running time is
+ *  proportional to <em>V</em> + <em>E</em>, divided across the pool when
+ *  the levels are wide.
+ */
+public class TopologicalSort {
+    private final int[] order;        // removed vertices, level by level
+    private final int[] levelStart;   // level i is order[levelStart[i] .. levelStart[i+1])
+    private final int[] level;        // level[v] = level of v, or -1 if on or after a cycle
+    private final int n;              // number of removed vertices
+
+    /**
+     * Computes a topological order of the graph {@code G} on the common
+     * fork/join pool.
+     *
+     * @param  G the graph
+     */
+    public TopologicalSort(CsrGraph G) {
+        this(G, G.reverse(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes a topological order of the graph {@code G}, whose reverse
+     * {@code R} has already been built, on the given pool.
+     *
+     * @param  G the graph
+     * @param  R the reverse of {@code G}, as returned by {@link CsrGraph#reverse()}
+     * @param  pool the pool to run on
+     * @throws IllegalArgumentException if {@code G} and {@code R} do not
+     *         have the same number of vertices
+     */
+    public TopologicalSort(CsrGraph G, CsrGraph R, ForkJoinPool pool) {
+        final int V = G.V();
+        if (R.V() != V) throw new IllegalArgumentException("Reverse graph has a different number of vertices");
+        final int[] offsets = G.offsets();
+        final int[] targets = G.targets();
+        final int[] rOffsets = R.offsets();
+
+        final AtomicIntegerArray indegree = new AtomicIntegerArray(V);
+        for (int v = 0; v < V; v++)
+            indegree.lazySet(v, rOffsets[v + 1] - rOffsets[v]);
+        level = new int[V];
+        Arrays.fill(level, -1);
+
+        // the frontiers are written one after another into order[]
+        order = new int[V];
+        int[] starts = new int[8];
+        int levels = 0;
+        int n = 0;
+        for (int v = 0; v < V; v++)
+            if (rOffsets[v + 1] == rOffsets[v]) order[n++] = v;
+        int lo = 0;
+        while (lo < n) {
+            if (levels + 1 == starts.length)
+                starts = Arrays.copyOf(starts, 2 * starts.length);
+            starts[levels] = lo;
+            final int depth = levels++;
+            final AtomicInteger tail = new AtomicInteger(n);
+            ParallelFor.run(pool, lo, n, ParallelFor.grain(pool, n - lo, 64), (a, b) -> {
+                IntBag next = new IntBag();
+                for (int j = a; j < b; j++) {
+                    int v = order[j];
+                    level[v] = depth;
+                    for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                        int w = targets[i];
+                        if (indegree.decrementAndGet(w) == 0)
+                            next.add(w);
+                    }
+                }
+                next.copyTo(order, tail.getAndAdd(next.size()));
+            });
+            lo = n;
+            n = tail.get();
+        }
+        starts[levels] = n;
+        this.n = n;
+        levelStart = Arrays.copyOf(starts, levels + 1);
+    }
+
+    /**
+     * Is the graph a directed acyclic graph?
+     *
+     * @return {@code true} if the graph has no directed cycle, {@code false} otherwise
+     */
+    public boolean isDAG() {
+        return n == order.length;
+    }
+
+    /**
+     * Returns a topological order of the vertices, level by level.
+     *
+     * @return the vertices in an order in which every edge points forward,
+     *         or {@code null} if the graph has a directed cycle
+     */
+    public int[] order() {
+        return isDAG() ? order.clone() : null;
+    }
+
+    /**
+     * Returns the number of levels.
+     *
+     * @return the number of levels; if the graph has a directed cycle, the
+     *         number of levels below the first vertex on or after a cycle
+     */
+    public int levels() {
+        return levelStart.length - 1;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = level.length;
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the level of vertex {@code v}: the number of edges on a
+     * longest path ending at {@code v}.
+     *
+     * @param  v the vertex
+     * @return the level of {@code v}, or -1 if {@code v} is on a directed
+     *         cycle or reachable from one
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int level(int v) {
+        validateVertex(v);
+        return level[v];
+    }
+
+    /**
+     * Returns the vertices of level {@code i}.
+     *
+     * @param  i the level
+     * @return the vertices of level {@code i}
+     * @throws IndexOutOfBoundsException unless {@code 0 <= i < levels()}
+     */
+    public int[] levelVertices(int i) {
+        if (i < 0 || i >= levels())
+            throw new IndexOutOfBoundsException("level " + i + " is not between 0 and " + (levels() - 1));
+        return Arrays.copyOfRange(order, levelStart[i], levelStart[i + 1]);
+    }
+
+    /*
+     * Package-private views shared with DagScheduler and DirectedCycle; level
+     * i is orderArray()[levelStartArray()[i] .. levelStartArray()[i+1]).
+     * Neither array may be modified.
+     */
+    int[] orderArray() {
+        return order;
+    }
+
+    int[] levelStartArray() {
+        return levelStart;
+    }
+
+    /**
+     * Unit tests the {@code TopologicalSort} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CsrGraph G = new CsrGraph(in);
+        TopologicalSort topological = new TopologicalSort(G);
+        if (!topological.isDAG())
+            StdOut.println("not a DAG; the levels below the cycle are:");
+        for (int i = 0; i < topological.levels(); i++) {
+            StringBuilder s = new StringBuilder("level " + i + ":");
+            for (int v : topological.levelVertices(i))
+                s.append(" " + v);
+            StdOut.println(s);
+        }
+    }
+}
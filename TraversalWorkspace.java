@@ -0,0 +1,182 @@
+/******************************************************************************
+ *  Compilation:  javac TraversalWorkspace.java
+ *
+ *  Reusable per-query scratch space for graph traversals, reset in
+ *  constant time with an epoch stamp.
+ *
+ ******************************************************************************/
+
+import java.util.Arrays;
+
+/**
+ *  The {@code TraversalWorkspace} class holds the vertex-indexed arrays that
+ *  a traversal of a graph with <em>V</em> vertices needs: visited and
+ *  finished marks, distances, parents, and two {@code int[]} scratch arrays
+ *  for a queue or stack. The graph itself stays immutable, so any number of
+ *  traversals can run over the same graph at once, each with its own
+ *  workspace.
+ *  <p>
+ *  The marks are epoch stamps: vertex <em>v</em> is visited in the current
+ *  traversal if and only if {@code seen[v]} equals the current epoch. Hence
+ *  {@link #reset()} only increments the epoch and takes constant time,
+ *  instead of clearing <em>V</em> entries; the arrays are cleared only when
+ *  the epoch wraps around, once every 2<sup>31</sup> resets. Distances and
+ *  parents are meaningful only for visited vertices.
+ *  <p>
+ *  A {@link Pool} hands each thread its own workspace, allocated on first
+ *  use, so that a server answering concurrent queries allocates
+ *  <em>O</em>(<em>V</em>) memory once per thread rather than once per
+ *  query. A workspace must not be used by two threads at the same time.
+ */
+public class TraversalWorkspace {
+    private final int V;
+    private int epoch;
+
+    // shared with the traversal algorithms in this package
+    final int[] seen;     // seen[v] == epoch iff v has been reached
+    final int[] done;     // done[v] == epoch iff v has been finished
+    final int[] dist;     // dist[v] = distance of v, if reached
+    final int[] parent;   // parent[v] = predecessor of v, if reached
+    final int[] queue;    // scratch: a queue or a stack of vertices
+    final int[] cursor;   // scratch: per-stack-entry adjacency cursors
+
+    /**
+     * Hands out one {@link TraversalWorkspace} per thread for graphs with a
+     * fixed number of vertices.
+     */
+    public static class Pool {
+        private final int V;
+        private final ThreadLocal<TraversalWorkspace> local;
+
+        /**
+         * Initializes a pool of workspaces for graphs with {@code V} vertices.
+         *
+         * @param  V the number of vertices
+         * @throws IllegalArgumentException if {@code V < 0}
+         */
+        public Pool(final int V) {
+            if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+            this.V = V;
+            this.local = new ThreadLocal<TraversalWorkspace>() {
+                protected TraversalWorkspace initialValue() {
+                    return new TraversalWorkspace(V);
+                }
+            };
+        }
+
+        /**
+         * Returns the calling thread's workspace, freshly reset.
+         *
+         * @return the calling thread's workspace
+         */
+        public TraversalWorkspace get() {
+            TraversalWorkspace ws = local.get();
+            ws.reset();
+            return ws;
+        }
+
+        /**
+         * Returns the number of vertices of the workspaces in this pool.
+         *
+         * @return the number of vertices
+         */
+        public int V() {
+            return V;
+        }
+    }
+
+    /**
+     * Initializes a workspace for graphs with {@code V} vertices, with no
+     * vertex visited.
+     *
+     * @param  V the number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public TraversalWorkspace(int V) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        this.V = V;
+        seen = new int[V];
+        done = new int[V];
+        dist = new int[V];
+        parent = new int[V];
+        queue = new int[V];
+        cursor = new int[V];
+        epoch = 1;
+    }
+
+    /**
+     * Returns the number of vertices this workspace is sized for.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Marks every vertex unvisited and unfinished, in constant amortized time.
+     */
+    public void reset() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(done, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Returns the current epoch; a vertex {@code v} has been visited since the
+     * last reset if and only if {@code seen[v]} equals it.
+     *
+     * @return the current epoch
+     */
+    int epoch() {
+        return epoch;
+    }
+
+    // throw an IndexOutOfBoundsException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IndexOutOfBoundsException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Has vertex {@code v} been visited since the last reset?
+     *
+     * @param  v the vertex
+     * @return {@code true} if {@code v} has been visited; {@code false} otherwise
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public boolean visited(int v) {
+        validateVertex(v);
+        return seen[v] == epoch;
+    }
+
+    /**
+     * Returns the distance recorded for vertex {@code v} by the last
+     * traversal.
+     *
+     * @param  v the vertex
+     * @return the distance of {@code v}, or {@code Integer.MAX_VALUE} if
+     *         {@code v} has not been visited
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int distTo(int v) {
+        validateVertex(v);
+        return seen[v] == epoch ? dist[v] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the predecessor recorded for vertex {@code v} by the last
+     * traversal; a source is its own predecessor.
+     *
+     * @param  v the vertex
+     * @return the predecessor of {@code v}, or -1 if {@code v} has not been
+     *         visited
+     * @throws IndexOutOfBoundsException unless {@code 0 <= v < V}
+     */
+    public int parent(int v) {
+        validateVertex(v);
+        return seen[v] == epoch ? parent[v] : -1;
+    }
+}